@@ -0,0 +1,50 @@
+package com.firmable.aisearch.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autosuggest re-ranking: prefix scores for company names and popularity-boosted scores for facet values,
+ * over the candidates of the recorded response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutosuggestScoringBenchmark {
+
+    @Param({"so", "comp", "computer software"})
+    public String query;
+
+    private final List<String> companyNames = new ArrayList<>();
+    private List<String> industries;
+    private List<Integer> industryCounts;
+
+    @Setup
+    public void setup() throws Exception {
+        SolrFixtures.selectResponse().path("response").path("docs")
+                .forEach(doc -> companyNames.add(doc.path("name").asText()));
+        industries = SolrFixtures.facetValues("industry");
+        industryCounts = SolrFixtures.facetCounts("industry");
+    }
+
+    @Benchmark
+    public void prefixScore(Blackhole blackhole) {
+        for (String name : companyNames) {
+            blackhole.consume(AutosuggestService.calculatePrefixScore(query, name));
+        }
+    }
+
+    @Benchmark
+    public void facetScore(Blackhole blackhole) {
+        for (int i = 0; i < industries.size(); i++) {
+            blackhole.consume(AutosuggestService.calculateFacetScore(query, industries.get(i), industryCounts.get(i)));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.firmable.aisearch.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring 1000 re-rank candidates, picked at random from 50k stored 384-dim vectors, against a query:
+ * one {@code float[]} per document, and the int8 {@link EmbeddingStore} with the scalar and Vector API
+ * kernels. Setup prints the memory of both layouts and the largest cosine error of the quantized scores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddingStoreBenchmark {
+
+    private static final int DOCUMENTS = 50_000;
+    private static final int DIMENSION = 384;
+    private static final int CANDIDATES = 1000;
+
+    private float[][] floats;
+    private EmbeddingStore.Snapshot snapshot;
+    private Int8DotProduct scalar;
+    private Int8DotProduct vectorApi;
+    private int[] candidates;
+    private float[] query;
+    private EmbeddingStore.Quantized quantizedQuery;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(11);
+        floats = new float[DOCUMENTS][];
+        EmbeddingStore.SnapshotBuilder builder = new EmbeddingStore.SnapshotBuilder(DIMENSION, DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            floats[i] = HnswGraph.normalize(gaussian(random));
+            builder.add("company-" + i, EmbeddingStore.quantize(floats[i]));
+        }
+        snapshot = builder.build();
+        scalar = new ScalarInt8DotProduct();
+        vectorApi = EmbeddingStore.kernel();
+
+        candidates = new int[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            candidates[i] = random.nextInt(DOCUMENTS);
+        }
+        // Near a stored vector, so that some candidates are similar to it
+        query = gaussian(random);
+        for (int i = 0; i < DIMENSION; i++) {
+            query[i] = query[i] * 0.5f + floats[candidates[0]][i] * 20f;
+        }
+        query = HnswGraph.normalize(query);
+        quantizedQuery = EmbeddingStore.quantize(query);
+
+        double maxError = 0;
+        for (int i = 0; i < DOCUMENTS; i++) {
+            maxError = Math.max(maxError, Math.abs(dot(floats[i], query) - snapshot.similarity(scalar, i, quantizedQuery)));
+        }
+        System.out.printf("%nfloat[]: %d MB, int8: %d MB, max cosine error %.4f, kernel %s%n",
+                (long) DOCUMENTS * (16 + 4 * DIMENSION) >> 20, snapshot.bytes() >> 20, maxError, vectorApi.getName());
+    }
+
+    @Benchmark
+    public float floatArrays() {
+        float sum = 0;
+        for (int candidate : candidates) {
+            sum += dot(floats[candidate], query);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float int8Scalar() {
+        float sum = 0;
+        for (int candidate : candidates) {
+            sum += snapshot.similarity(scalar, candidate, quantizedQuery);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float int8VectorApi() {
+        float sum = 0;
+        for (int candidate : candidates) {
+            sum += snapshot.similarity(vectorApi, candidate, quantizedQuery);
+        }
+        return sum;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float[] gaussian(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
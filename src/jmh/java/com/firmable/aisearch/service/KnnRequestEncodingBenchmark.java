@@ -0,0 +1,58 @@
+package com.firmable.aisearch.service;
+
+import com.firmable.aisearch.solr.SelectRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a 384-dim kNN query: the JSON Request API body written from the per-thread buffer, against the
+ * previous {@code StringBuilder.append(float)} query string URL-encoded into the GET line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KnnRequestEncodingBenchmark {
+
+    private static final String PATH = "/select?wt=json&fq=country_s:australia&start=0&rows=20&fl=id,name,score";
+
+    private float[] embedding;
+
+    @Setup
+    public void setup() throws Exception {
+        embedding = SolrFixtures.nameEmbedding();
+        System.out.printf("%nknn request size: json body %d bytes, url-encoded query %d chars%n",
+                new SelectRequest(PATH).knn("q", SemanticSearchService.NAME_VECTOR_FIELD, 100, embedding)
+                        .writeBody(OutputStream.nullOutputStream()),
+                urlEncoded().length());
+    }
+
+    @Benchmark
+    public void jsonBody(Blackhole blackhole) throws Exception {
+        SelectRequest request = new SelectRequest(PATH).knn("q", SemanticSearchService.NAME_VECTOR_FIELD, 100, embedding);
+        blackhole.consume(request.writeBody(OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public void urlEncodedQuery(Blackhole blackhole) {
+        blackhole.consume(urlEncoded());
+    }
+
+    private String urlEncoded() {
+        StringBuilder vectorQuery = new StringBuilder();
+        vectorQuery.append("{!knn f=").append(SemanticSearchService.NAME_VECTOR_FIELD).append(" topK=100}[");
+        for (int i = 0; i < embedding.length; i++) {
+            if (i > 0) vectorQuery.append(",");
+            vectorQuery.append(embedding[i]);
+        }
+        vectorQuery.append("]");
+        return PATH + "&q=" + URLEncoder.encode(vectorQuery.toString(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package com.firmable.aisearch.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * parseQuery with the precompiled keyword matcher against the previous regex-per-keyword implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryUnderstandingBenchmark {
+
+    @Param({
+        "stripe",
+        "fintech startups in california",
+        "artificial intelligence and machine learning companies near san francisco bay area",
+        "healthcare firms in new york or boston"
+    })
+    public String query;
+
+    private QueryUnderstandingService service;
+    private RegexQueryParser regexParser;
+
+    @Setup
+    public void setup() {
+        service = new QueryUnderstandingService();
+        regexParser = new RegexQueryParser();
+    }
+
+    @Benchmark
+    public void keywordMatcher(Blackhole blackhole) {
+        blackhole.consume(service.parseQuery(query));
+    }
+
+    @Benchmark
+    public void regexPerKeyword(Blackhole blackhole) {
+        blackhole.consume(regexParser.parseQuery(query));
+    }
+}
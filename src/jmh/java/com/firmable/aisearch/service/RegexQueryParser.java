@@ -0,0 +1,69 @@
+package com.firmable.aisearch.service;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * The per-keyword regex implementation QueryUnderstandingService used before the Aho-Corasick matcher,
+ * kept as the benchmark baseline.
+ */
+class RegexQueryParser {
+
+    QueryUnderstandingService.ParsedQuery parseQuery(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return new QueryUnderstandingService.ParsedQuery();
+        }
+
+        String normalizedQuery = query.toLowerCase().trim();
+        QueryUnderstandingService.ParsedQuery parsed = new QueryUnderstandingService.ParsedQuery();
+        parsed.setOriginalQuery(query);
+
+        List<String> detectedIndustries = extract(normalizedQuery, QueryUnderstandingService.INDUSTRY_KEYWORDS);
+        List<String> detectedLocations = extract(normalizedQuery, QueryUnderstandingService.LOCATION_KEYWORDS);
+        parsed.setIndustries(detectedIndustries);
+        parsed.setLocations(detectedLocations);
+        parsed.setCleanedQuery(cleanQuery(normalizedQuery, detectedIndustries, detectedLocations));
+        return parsed;
+    }
+
+    private List<String> extract(String query, Map<String, List<String>> keywordsByEntity) {
+        List<String> detected = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : keywordsByEntity.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                if (containsKeyword(query, keyword)) {
+                    detected.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return detected;
+    }
+
+    private boolean containsKeyword(String query, String keyword) {
+        String pattern = "\\b" + Pattern.quote(keyword.toLowerCase()) + "\\b";
+        return Pattern.compile(pattern).matcher(query).find();
+    }
+
+    private String cleanQuery(String query, List<String> industries, List<String> locations) {
+        String cleaned = query;
+        Set<String> wordsToRemove = new HashSet<>();
+        for (String industry : industries) {
+            wordsToRemove.addAll(QueryUnderstandingService.INDUSTRY_KEYWORDS.get(industry));
+        }
+        for (String location : locations) {
+            wordsToRemove.addAll(QueryUnderstandingService.LOCATION_KEYWORDS.get(location));
+        }
+        wordsToRemove.addAll(QueryUnderstandingService.FILLER_WORDS);
+
+        for (String word : wordsToRemove) {
+            String pattern = "\\b" + Pattern.quote(word.toLowerCase()) + "\\b";
+            cleaned = cleaned.replaceAll(pattern, " ");
+        }
+        cleaned = cleaned.replaceAll("\\s+", " ").trim();
+
+        if (cleaned.isEmpty() && !industries.isEmpty()) {
+            cleaned = industries.get(0);
+        }
+        return cleaned;
+    }
+}
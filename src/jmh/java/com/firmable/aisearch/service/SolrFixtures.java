@@ -0,0 +1,101 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorded Solr responses for benchmarks that must not depend on a live Solr.
+ */
+final class SolrFixtures {
+
+    /** One page of a /select response for "software" with all three embedding vectors stored, plus facets */
+    static final String SELECT_RESPONSE = "/fixtures/solr-select.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private SolrFixtures() {
+    }
+
+    static JsonNode selectResponse() throws IOException {
+        try (InputStream in = SolrFixtures.class.getResourceAsStream(SELECT_RESPONSE)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + SELECT_RESPONSE);
+            }
+            return MAPPER.readTree(in);
+        }
+    }
+
+    /**
+     * The recorded response with its documents repeated under fresh ids until the page holds {@code docs} documents
+     */
+    static String selectResponse(int docs) throws IOException {
+        return selectResponse(docs, true);
+    }
+
+    /**
+     * As {@link #selectResponse(int)}; without vectors it matches what the projected fl returns
+     */
+    static String selectResponse(int docs, boolean withVectors) throws IOException {
+        ObjectNode root = (ObjectNode) selectResponse();
+        ArrayNode recorded = (ArrayNode) root.path("response").path("docs");
+        ArrayNode page = MAPPER.createArrayNode();
+        for (int i = 0; i < docs; i++) {
+            ObjectNode doc = recorded.get(i % recorded.size()).deepCopy();
+            doc.put("id", String.format("comp-%06d", i));
+            doc.put("score", doc.path("score").asDouble() * (1.0 - (double) i / (docs * 2)));
+            if (!withVectors) {
+                doc.remove(List.of("name_embedding_vector", "industry_embedding_vector", "locality_embedding_vector"));
+            }
+            page.add(doc);
+        }
+        ((ObjectNode) root.path("response")).set("docs", page);
+        return MAPPER.writeValueAsString(root);
+    }
+
+    /**
+     * Facet values of the recorded response, without their counts
+     */
+    static List<String> facetValues(String field) throws IOException {
+        List<String> values = new ArrayList<>();
+        JsonNode counts = selectResponse().path("facet_counts").path("facet_fields").path(field);
+        for (int i = 0; i < counts.size(); i += 2) {
+            values.add(counts.get(i).asText());
+        }
+        return values;
+    }
+
+    static List<Integer> facetCounts(String field) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        JsonNode counts = selectResponse().path("facet_counts").path("facet_fields").path(field);
+        for (int i = 1; i < counts.size(); i += 2) {
+            values.add(counts.get(i).asInt());
+        }
+        return values;
+    }
+
+    static float[] nameEmbedding() throws IOException {
+        JsonNode vector = selectResponse().path("response").path("docs").get(0).path("name_embedding_vector");
+        float[] embedding = new float[vector.size()];
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = (float) vector.get(i).asDouble();
+        }
+        return embedding;
+    }
+
+    /**
+     * Set an injected field on a service constructed outside Spring
+     */
+    static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,56 @@
+package com.firmable.aisearch.service;
+
+import com.firmable.aisearch.model.ComprehensiveSearchResponse;
+import org.openjdk.jmh.annotations.*;
+import com.firmable.aisearch.solr.SelectRequest;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the comprehensive search /select request, with filters, sorting and facets. The hybrid case
+ * also writes the 384-dim knn boost query into the JSON body; its embedding comes from the fixture, not the model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolrQueryBuildingBenchmark {
+
+    @Param({"lexical", "hybrid"})
+    public String searchType;
+
+    private final List<String> facetFields = List.of("industry", "locality", "size_range_s");
+    private final List<String> returnFields = List.of("id", "name", "industry", "locality", "country_s", "score");
+    private final Map<String, Object> filters = new HashMap<>();
+    private SearchService searchService;
+
+    @Setup
+    public void setup() throws Exception {
+        float[] embedding = SolrFixtures.nameEmbedding();
+        searchService = new SearchService();
+        SolrFixtures.inject(searchService, "semanticSearchService", new SemanticSearchService() {
+            @Override
+            public float[] generateEmbedding(String text) {
+                return embedding;
+            }
+        });
+        filters.put("industry", List.of("computer software", "internet"));
+        filters.put("country", "australia");
+        filters.put("founded", Map.of("from", 2000, "to", 2020));
+    }
+
+    @Benchmark
+    public void buildSolrQuery(Blackhole blackhole) throws Exception {
+        SelectRequest request = searchService.buildSolrQuery("cloud software companies", filters, facetFields,
+                "score", "desc", 2, 20, returnFields, searchType, null, null, new ComprehensiveSearchResponse.StageTimings());
+        blackhole.consume(request.hasBody() ? request.writeBody(OutputStream.nullOutputStream()) : 0);
+        blackhole.consume(request);
+    }
+}
@@ -0,0 +1,94 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.model.ComprehensiveSearchResponse;
+import com.firmable.aisearch.solr.SolrResponseParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a recorded Solr /select response, with stored embedding vectors, to a ComprehensiveSearchResponse,
+ * classifying each hybrid result as lexical or semantic, and RRF-fusing the documents with a rotated copy of
+ * themselves. {@code readTreeConvertValue} is the previous parse (whole-body tree, convertValue per document,
+ * then vector removal) for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolrResponseMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int docs;
+
+    private final List<String> facetFields = List.of("industry", "locality");
+    private SearchService searchService;
+    private byte[] body;
+    private List<Map<String, Object>> documents;
+
+    @Setup
+    public void setup() throws Exception {
+        searchService = new SearchService();
+        body = SolrFixtures.selectResponse(docs).getBytes(StandardCharsets.UTF_8);
+        documents = map().getDocuments();
+    }
+
+    @Benchmark
+    public void mapSolrResponse(Blackhole blackhole) throws Exception {
+        blackhole.consume(map());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void readTreeConvertValue(Blackhole blackhole) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(new String(body, StandardCharsets.UTF_8));
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (JsonNode doc : root.path("response").path("docs")) {
+            Map<String, Object> docMap = mapper.convertValue(doc, Map.class);
+            docMap.entrySet().removeIf(entry -> entry.getKey().endsWith("_embedding_vector"));
+            documents.add(docMap);
+        }
+        blackhole.consume(documents);
+        blackhole.consume(root.path("facet_counts"));
+    }
+
+    @Benchmark
+    public void determineResultSearchType(Blackhole blackhole) {
+        for (Map<String, Object> doc : documents) {
+            blackhole.consume(searchService.determineResultSearchType(doc, "software", "hybrid"));
+        }
+    }
+
+    @Benchmark
+    public void fuse(Blackhole blackhole) {
+        // Fusion annotates the documents it is given, so each invocation fuses fresh copies
+        blackhole.consume(HybridFusion.fuse(copies(0), copies(documents.size() / 2), HybridFusion.Method.RRF,
+                60, 1.0, 1.0));
+    }
+
+    private List<Map<String, Object>> copies(int offset) {
+        List<Map<String, Object>> copies = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            copies.add(new HashMap<>(documents.get((i + offset) % documents.size())));
+        }
+        return copies;
+    }
+
+    private ComprehensiveSearchResponse map() throws Exception {
+        SolrResponseParser.SelectResponse solrResponse = SolrResponseParser.parseSelect(new ByteArrayInputStream(body));
+        return searchService.mapSolrResponse(solrResponse, "software", Map.of(), facetFields, "score", "desc",
+                0, docs, new ComprehensiveSearchResponse.StageTimings());
+    }
+}
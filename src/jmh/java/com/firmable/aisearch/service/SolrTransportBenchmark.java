@@ -0,0 +1,128 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.solr.SolrResponseParser;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.JavaBinCodec;
+import org.apache.solr.common.util.NamedList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decoding a projected /select page (no vectors) as JSON or javabin, optionally gzip-compressed on the wire.
+ * Payload sizes for each combination are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolrTransportBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int docs;
+
+    @Param({"json", "javabin"})
+    public String format;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        String json = SolrFixtures.selectResponse(docs, false);
+        byte[] body = "json".equals(format) ? json.getBytes(StandardCharsets.UTF_8) : javabin(json);
+        payload = "gzip".equals(encoding) ? gzip(body) : body;
+        System.out.printf("%n%s/%s, %d docs: %d bytes%n", format, encoding, docs, payload.length);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        InputStream in = new ByteArrayInputStream(payload);
+        if ("gzip".equals(encoding)) {
+            in = new GZIPInputStream(in);
+        }
+        blackhole.consume("json".equals(format)
+                ? SolrResponseParser.parseSelect(in)
+                : SolrResponseParser.parseSelectJavabin(in));
+    }
+
+    /**
+     * The same response as Solr's javabin writer would encode it: float fields as Float, the rest as decoded
+     */
+    private static byte[] javabin(String json) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(json);
+
+        NamedList<Object> header = new NamedList<>();
+        header.add("status", root.path("responseHeader").path("status").asInt());
+        header.add("QTime", root.path("responseHeader").path("QTime").asInt());
+
+        SolrDocumentList docList = new SolrDocumentList();
+        docList.setNumFound(root.path("response").path("numFound").asLong());
+        docList.setStart(0);
+        for (JsonNode doc : root.path("response").path("docs")) {
+            SolrDocument solrDoc = new SolrDocument();
+            for (Iterator<Map.Entry<String, JsonNode>> fields = doc.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                if (value.isTextual()) {
+                    solrDoc.setField(field.getKey(), value.asText());
+                } else if (value.isIntegralNumber()) {
+                    solrDoc.setField(field.getKey(), value.asLong());
+                } else if ("score".equals(field.getKey())) {
+                    solrDoc.setField(field.getKey(), value.floatValue());
+                } else {
+                    solrDoc.setField(field.getKey(), value.asDouble());
+                }
+            }
+            docList.add(solrDoc);
+        }
+
+        NamedList<Object> facetFields = new NamedList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = root.path("facet_counts").path("facet_fields").fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            NamedList<Integer> counts = new NamedList<>();
+            for (int i = 0; i + 1 < field.getValue().size(); i += 2) {
+                counts.add(field.getValue().get(i).asText(), field.getValue().get(i + 1).asInt());
+            }
+            facetFields.add(field.getKey(), counts);
+        }
+        NamedList<Object> facetCounts = new NamedList<>();
+        facetCounts.add("facet_fields", facetFields);
+
+        NamedList<Object> response = new NamedList<>();
+        response.add("responseHeader", header);
+        response.add("response", docList);
+        response.add("facet_counts", facetCounts);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JavaBinCodec codec = new JavaBinCodec()) {
+            codec.marshal(response, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
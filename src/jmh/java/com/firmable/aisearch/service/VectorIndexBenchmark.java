@@ -0,0 +1,143 @@
+package com.firmable.aisearch.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Top-100 nearest neighbours from a memory-mapped {@link HnswGraph} of 20k clustered 384-dim vectors:
+ * unfiltered, filtered to one of three countries (graph walk) and to one of 50 industries (exact scan of the
+ * matching nodes), against a full exact scan. Setup prints the graph's recall against the exact results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VectorIndexBenchmark {
+
+    private static final int DOCUMENTS = 20_000;
+    private static final int DIMENSION = 384;
+    private static final int TOP_K = 100;
+    private static final String[] COUNTRIES = {"australia", "united states", "germany"};
+
+    private Path dir;
+    private HnswGraph graph;
+    private float[][] queries;
+    private HnswGraph.Filter countryFilter;
+    private HnswGraph.Filter industryFilter;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(7);
+        float[][] centroids = new float[64][];
+        for (int i = 0; i < centroids.length; i++) {
+            centroids[i] = gaussian(random, 1.0f);
+        }
+        dir = Files.createTempDirectory("hnsw-bench");
+        long start = System.currentTimeMillis();
+        try (HnswGraphBuilder builder = new HnswGraphBuilder(DIMENSION, HnswGraph.Similarity.COSINE, 16, 100, dir)) {
+            for (int i = 0; i < DOCUMENTS; i++) {
+                builder.add("company-" + i, near(random, centroids[random.nextInt(centroids.length)], 0.5f),
+                        COUNTRIES[i % COUNTRIES.length], "industry " + (i % 50));
+            }
+            builder.write(dir.resolve("name_embedding_vector.hnsw"));
+        }
+        graph = HnswGraph.open(dir.resolve("name_embedding_vector.hnsw"));
+        System.out.printf("%nbuilt %d x %d graph in %dms%n", DOCUMENTS, DIMENSION, System.currentTimeMillis() - start);
+
+        queries = new float[256][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = near(random, centroids[random.nextInt(centroids.length)], 0.6f);
+        }
+        boolean[] countries = new boolean[graph.getCountries().size()];
+        countries[graph.getCountries().indexOf("australia")] = true;
+        countryFilter = new HnswGraph.Filter(countries, null);
+        boolean[] industries = new boolean[graph.getIndustries().size()];
+        industries[graph.getIndustries().indexOf("industry 7")] = true;
+        industryFilter = new HnswGraph.Filter(null, industries);
+
+        System.out.printf("recall@%d: unfiltered %.3f, country filter %.3f%n", TOP_K, recall(null), recall(countryFilter));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        graph = null;
+        try (var files = Files.list(dir)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void graphSearch(Blackhole blackhole) {
+        blackhole.consume(graph.search(nextQuery(), TOP_K, 100, null, 10_000));
+    }
+
+    @Benchmark
+    public void graphSearchCountryFilter(Blackhole blackhole) {
+        blackhole.consume(graph.search(nextQuery(), TOP_K, 100, countryFilter, 1_000));
+    }
+
+    @Benchmark
+    public void exactSearchIndustryFilter(Blackhole blackhole) {
+        blackhole.consume(graph.search(nextQuery(), TOP_K, 100, industryFilter, 1_000));
+    }
+
+    @Benchmark
+    public void exactScan(Blackhole blackhole) {
+        blackhole.consume(graph.search(nextQuery(), TOP_K, 100, new HnswGraph.Filter(null, null), Integer.MAX_VALUE));
+    }
+
+    private float[] nextQuery() {
+        next = (next + 1) % queries.length;
+        return queries[next];
+    }
+
+    private double recall(HnswGraph.Filter filter) {
+        long found = 0;
+        for (float[] query : queries) {
+            Set<String> exact = ids(graph.search(query, TOP_K, 100, filter != null ? filter : new HnswGraph.Filter(null, null), Integer.MAX_VALUE));
+            Set<String> approximate = ids(graph.search(query, TOP_K, 100, filter, 1_000));
+            approximate.retainAll(exact);
+            found += approximate.size();
+        }
+        return (double) found / (queries.length * TOP_K);
+    }
+
+    private static Set<String> ids(List<HnswGraph.Neighbor> neighbours) {
+        Set<String> ids = new HashSet<>();
+        for (HnswGraph.Neighbor neighbour : neighbours) {
+            ids.add(neighbour.getId());
+        }
+        return ids;
+    }
+
+    private static float[] gaussian(Random random, float scale) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian() * scale;
+        }
+        return vector;
+    }
+
+    private static float[] near(Random random, float[] centroid, float spread) {
+        float[] vector = gaussian(random, spread);
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] += centroid[i];
+        }
+        return vector;
+    }
+}
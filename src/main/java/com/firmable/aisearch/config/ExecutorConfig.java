@@ -0,0 +1,127 @@
+package com.firmable.aisearch.config;
+
+import com.firmable.aisearch.logging.RequestLogging;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executors for request-path fan-out. Queues are bounded and overflow is rejected
+ * rather than run on the caller, so a saturated pool degrades into partial results instead of added latency.
+ */
+@Configuration
+public class ExecutorConfig implements WebMvcConfigurer {
+
+    @Value("${autosuggest.executor.threads:16}")
+    private int autosuggestThreads;
+
+    @Value("${autosuggest.executor.queue-capacity:256}")
+    private int autosuggestQueueCapacity;
+
+    @Value("${embedding.executor.threads:16}")
+    private int embeddingThreads;
+
+    @Value("${embedding.executor.queue-capacity:512}")
+    private int embeddingQueueCapacity;
+
+    @Value("${search.hybrid.executor.threads:16}")
+    private int hybridThreads;
+
+    @Value("${search.hybrid.executor.queue-capacity:256}")
+    private int hybridQueueCapacity;
+
+    @Value("${search.export.executor.threads:8}")
+    private int exportThreads;
+
+    @Value("${search.export.executor.queue-capacity:8}")
+    private int exportQueueCapacity;
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor autosuggestExecutor() {
+        return boundedExecutor("autosuggest", autosuggestThreads, autosuggestQueueCapacity);
+    }
+
+    /**
+     * Runs embedding service calls on behalf of the embedding cache
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor embeddingExecutor() {
+        return boundedExecutor("embedding", embeddingThreads, embeddingQueueCapacity);
+    }
+
+    /**
+     * Runs the lexical leg of a fused hybrid search while the request thread runs the vector leg
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor hybridExecutor() {
+        return boundedExecutor("hybrid", hybridThreads, hybridQueueCapacity);
+    }
+
+    /**
+     * Writes Spring MVC async response bodies, i.e. streaming exports. Without it MVC would use a
+     * SimpleAsyncTaskExecutor, one new thread per export for as long as the export runs; exports beyond
+     * the queue are rejected and answered with 503.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportThreads);
+        executor.setMaxPoolSize(exportThreads);
+        executor.setQueueCapacity(exportQueueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.setDaemon(true);
+        executor.setTaskDecorator(RequestLogging::withMdc);
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor());
+    }
+
+    /**
+     * Pool size, active threads, queue depth and completed/rejected task counts for each executor
+     */
+    @Bean
+    public MeterBinder executorMetrics(@Qualifier("autosuggestExecutor") ThreadPoolExecutor autosuggestExecutor,
+                                       @Qualifier("embeddingExecutor") ThreadPoolExecutor embeddingExecutor,
+                                       @Qualifier("hybridExecutor") ThreadPoolExecutor hybridExecutor,
+                                       @Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor) {
+        return registry -> {
+            new ExecutorServiceMetrics(autosuggestExecutor, "autosuggest", Collections.emptyList()).bindTo(registry);
+            new ExecutorServiceMetrics(embeddingExecutor, "embedding", Collections.emptyList()).bindTo(registry);
+            new ExecutorServiceMetrics(hybridExecutor, "hybrid", Collections.emptyList()).bindTo(registry);
+            new ExecutorServiceMetrics(exportExecutor.getThreadPoolExecutor(), "export", Collections.emptyList()).bindTo(registry);
+        };
+    }
+
+    static ThreadPoolExecutor boundedExecutor(String name, int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy()) {
+            @Override
+            public void execute(Runnable command) {
+                // Carry the request id and debug flag onto the worker thread
+                super.execute(RequestLogging.withMdc(command));
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.firmable.aisearch.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.routing.RoutingSupport;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+
+/**
+ * Shared pooled HTTP client used for all outbound calls (Solr and the embedding service).
+ * Replaces the per-call {@code new RestTemplate()} which opened a fresh connection on every request.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${solr.url}")
+    private String solrUrl;
+
+    @Value("${http.pool.max-total:200}")
+    private int maxTotal;
+
+    @Value("${http.pool.default-max-per-route:20}")
+    private int defaultMaxPerRoute;
+
+    @Value("${solr.http.max-per-route:100}")
+    private int solrMaxPerRoute;
+
+    @Value("${http.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+
+    @Value("${http.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    @Value("${http.connection-request-timeout-ms:500}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Value("${http.validate-after-inactivity-ms:2000}")
+    private long validateAfterInactivityMs;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(defaultMaxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMilliseconds(keepAliveMs * 10))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+
+        // Solr gets its own, larger per-route limit so autosuggest traffic is not starved by the default
+        connectionManager.setMaxPerRoute(solrRoute(), solrMaxPerRoute);
+        return connectionManager;
+    }
+
+    /**
+     * The route the client uses for Solr: the pool matches routes exactly, so a URL without a port gets the
+     * scheme's default, and https routes are secure, as the client's own routes are
+     */
+    HttpRoute solrRoute() {
+        HttpHost target = RoutingSupport.normalize(HttpHost.create(URI.create(solrUrl)), DefaultSchemePortResolver.INSTANCE);
+        return new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .build();
+    }
+
+    /**
+     * Pool gauges (leased, available, pending, max), exported with the rest of the metrics
+     */
+    @Bean
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return registry -> {
+            Gauge.builder("http.client.pool.connections", httpConnectionManager, cm -> cm.getTotalStats().getLeased())
+                    .tag("state", "leased").register(registry);
+            Gauge.builder("http.client.pool.connections", httpConnectionManager, cm -> cm.getTotalStats().getAvailable())
+                    .tag("state", "available").register(registry);
+            Gauge.builder("http.client.pool.connections", httpConnectionManager, cm -> cm.getTotalStats().getPending())
+                    .tag("state", "pending").register(registry);
+            Gauge.builder("http.client.pool.connections", httpConnectionManager, cm -> cm.getTotalStats().getMax())
+                    .tag("state", "max").register(registry);
+        };
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+}
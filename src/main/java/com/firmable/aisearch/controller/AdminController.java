@@ -0,0 +1,111 @@
+package com.firmable.aisearch.controller;
+
+import com.firmable.aisearch.service.EmbeddingStore;
+import com.firmable.aisearch.service.HnswVectorIndex;
+import com.firmable.aisearch.service.SearchResponseCache;
+import com.firmable.aisearch.service.SemanticSearchService;
+import com.firmable.aisearch.service.SuggesterService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.firmable.aisearch.solr.SolrClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private SolrClient solrClient;
+
+    @Autowired
+    private SuggesterService suggesterService;
+
+    @Autowired
+    private SemanticSearchService semanticSearchService;
+
+    @Autowired
+    private SearchResponseCache searchResponseCache;
+
+    @Autowired
+    private HnswVectorIndex hnswVectorIndex;
+
+    @Autowired
+    private EmbeddingStore embeddingStore;
+
+    @GetMapping("/solr/pool")
+    public ResponseEntity<Map<String, Object>> getSolrPoolStats() {
+        return ResponseEntity.ok(solrClient.getPoolStats());
+    }
+
+    @PostMapping("/suggester/rebuild")
+    public ResponseEntity<SuggesterService.SuggesterStatus> rebuildSuggester() {
+        boolean started = suggesterService.triggerRebuild("admin");
+        SuggesterService.SuggesterStatus status = suggesterService.getStatus();
+        return started ? ResponseEntity.accepted().body(status) : ResponseEntity.status(409).body(status);
+    }
+
+    @GetMapping("/suggester/status")
+    public ResponseEntity<SuggesterService.SuggesterStatus> getSuggesterStatus() {
+        return ResponseEntity.ok(suggesterService.getStatus());
+    }
+
+    @PostMapping("/vector-index/rebuild")
+    public ResponseEntity<HnswVectorIndex.VectorIndexStatus> rebuildVectorIndex() {
+        if (!hnswVectorIndex.isEnabled()) {
+            return ResponseEntity.status(404).body(hnswVectorIndex.getStatus());
+        }
+        boolean started = hnswVectorIndex.triggerRebuild("admin");
+        HnswVectorIndex.VectorIndexStatus status = hnswVectorIndex.getStatus();
+        return started ? ResponseEntity.accepted().body(status) : ResponseEntity.status(409).body(status);
+    }
+
+    @GetMapping("/vector-index/status")
+    public ResponseEntity<HnswVectorIndex.VectorIndexStatus> getVectorIndexStatus() {
+        return ResponseEntity.ok(hnswVectorIndex.getStatus());
+    }
+
+    @PostMapping("/embedding-store/reload")
+    public ResponseEntity<Map<String, Object>> reloadEmbeddingStore() {
+        if (!Boolean.TRUE.equals(embeddingStore.getStatus().get("enabled"))) {
+            return ResponseEntity.status(404).body(embeddingStore.getStatus());
+        }
+        boolean started = embeddingStore.triggerReload("admin");
+        Map<String, Object> status = embeddingStore.getStatus();
+        return started ? ResponseEntity.accepted().body(status) : ResponseEntity.status(409).body(status);
+    }
+
+    @GetMapping("/embedding-store/status")
+    public ResponseEntity<Map<String, Object>> getEmbeddingStoreStatus() {
+        return ResponseEntity.ok(embeddingStore.getStatus());
+    }
+
+    @GetMapping("/embedding-cache")
+    public ResponseEntity<Map<String, Object>> getEmbeddingCacheStats() {
+        CacheStats stats = semanticSearchService.getEmbeddingCacheStats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", semanticSearchService.getEmbeddingCacheSize());
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        body.put("loadFailures", stats.loadFailureCount());
+        body.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/search-cache")
+    public ResponseEntity<Map<String, Object>> getSearchCacheStats() {
+        CacheStats stats = searchResponseCache.getStats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", searchResponseCache.isEnabled());
+        body.put("size", searchResponseCache.getSize());
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        return ResponseEntity.ok(body);
+    }
+}
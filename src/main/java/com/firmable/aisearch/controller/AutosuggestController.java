@@ -1,29 +1,51 @@
 package com.firmable.aisearch.controller;
 
+import com.firmable.aisearch.metrics.SearchMetrics;
 import com.firmable.aisearch.service.AutosuggestService;
+import com.firmable.aisearch.service.AutosuggestService.SuggestionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/autosuggest")
 @CrossOrigin(origins = "*")
 public class AutosuggestController {
 
+    private static final Logger log = LoggerFactory.getLogger(AutosuggestController.class);
+
     @Autowired
     private AutosuggestService autosuggestService;
 
+    /**
+     * Runs before every handler in this controller
+     */
+    @ModelAttribute
+    public void tagRequestMetrics() {
+        SearchMetrics.tagSearchType("autosuggest");
+    }
+
     @GetMapping
     public ResponseEntity<AutosuggestService.AutosuggestResponse> getAutosuggestions(
             @RequestParam String query,
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) List<String> types
     ) {
         try {
-            AutosuggestService.AutosuggestResponse response = autosuggestService.getAutosuggestions(query, limit);
+            // Optional subset of suggestion types, e.g. types=company,location; defaults to all
+            Set<SuggestionType> selectedTypes = SuggestionType.parse(types);
+            if (selectedTypes.isEmpty()) {
+                selectedTypes = EnumSet.allOf(SuggestionType.class);
+            }
+            AutosuggestService.AutosuggestResponse response = autosuggestService.getAutosuggestions(query, limit, selectedTypes);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error in autosuggest endpoint: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in autosuggest endpoint", e);
             return ResponseEntity.status(500).body(new AutosuggestService.AutosuggestResponse());
         }
     }
@@ -34,14 +56,9 @@ public class AutosuggestController {
             @RequestParam(defaultValue = "10") int limit
     ) {
         try {
-            AutosuggestService.AutosuggestResponse response = autosuggestService.getAutosuggestions(query, limit);
-            AutosuggestService.AutosuggestResponse companiesOnly = new AutosuggestService.AutosuggestResponse();
-            companiesOnly.setCompanyNames(response.getCompanyNames());
-            companiesOnly.setAllSuggestions(response.getCompanyNames());
-            return ResponseEntity.ok(companiesOnly);
+            return ResponseEntity.ok(autosuggestService.getAutosuggestions(query, limit, EnumSet.of(SuggestionType.COMPANY)));
         } catch (Exception e) {
-            System.err.println("Error in company suggestions endpoint: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in company suggestions endpoint", e);
             return ResponseEntity.status(500).body(new AutosuggestService.AutosuggestResponse());
         }
     }
@@ -52,14 +69,9 @@ public class AutosuggestController {
             @RequestParam(defaultValue = "10") int limit
     ) {
         try {
-            AutosuggestService.AutosuggestResponse response = autosuggestService.getAutosuggestions(query, limit);
-            AutosuggestService.AutosuggestResponse industriesOnly = new AutosuggestService.AutosuggestResponse();
-            industriesOnly.setIndustries(response.getIndustries());
-            industriesOnly.setAllSuggestions(response.getIndustries());
-            return ResponseEntity.ok(industriesOnly);
+            return ResponseEntity.ok(autosuggestService.getAutosuggestions(query, limit, EnumSet.of(SuggestionType.INDUSTRY)));
         } catch (Exception e) {
-            System.err.println("Error in industry suggestions endpoint: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in industry suggestions endpoint", e);
             return ResponseEntity.status(500).body(new AutosuggestService.AutosuggestResponse());
         }
     }
@@ -70,14 +82,9 @@ public class AutosuggestController {
             @RequestParam(defaultValue = "10") int limit
     ) {
         try {
-            AutosuggestService.AutosuggestResponse response = autosuggestService.getAutosuggestions(query, limit);
-            AutosuggestService.AutosuggestResponse locationsOnly = new AutosuggestService.AutosuggestResponse();
-            locationsOnly.setLocations(response.getLocations());
-            locationsOnly.setAllSuggestions(response.getLocations());
-            return ResponseEntity.ok(locationsOnly);
+            return ResponseEntity.ok(autosuggestService.getAutosuggestions(query, limit, EnumSet.of(SuggestionType.LOCATION)));
         } catch (Exception e) {
-            System.err.println("Error in location suggestions endpoint: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in location suggestions endpoint", e);
             return ResponseEntity.status(500).body(new AutosuggestService.AutosuggestResponse());
         }
     }
@@ -88,15 +95,10 @@ public class AutosuggestController {
             @RequestParam(defaultValue = "10") int limit
     ) {
         try {
-            AutosuggestService.AutosuggestResponse response = autosuggestService.getAutosuggestions(query, limit);
-            AutosuggestService.AutosuggestResponse templatesOnly = new AutosuggestService.AutosuggestResponse();
-            templatesOnly.setQueryTemplates(response.getQueryTemplates());
-            templatesOnly.setAllSuggestions(response.getQueryTemplates());
-            return ResponseEntity.ok(templatesOnly);
+            return ResponseEntity.ok(autosuggestService.getAutosuggestions(query, limit, EnumSet.of(SuggestionType.TEMPLATE)));
         } catch (Exception e) {
-            System.err.println("Error in query template suggestions endpoint: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in query template suggestions endpoint", e);
             return ResponseEntity.status(500).body(new AutosuggestService.AutosuggestResponse());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.firmable.aisearch.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * Stand-in for the embedding service, enabled with the {@code embedding-stub} profile so batching can be
+ * exercised locally. Embeddings are deterministic unit vectors seeded from the text; they carry no meaning.
+ */
+@RestController
+@RequestMapping("/stub")
+@Profile("embedding-stub")
+public class EmbeddingStubController {
+
+    @Value("${embedding.stub.dimension:384}")
+    private int dimension;
+
+    @PostMapping("/embed")
+    public ResponseEntity<Map<String, Object>> embed(@RequestBody Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("embedding", embedding(request.getOrDefault("text", "")));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/embed_batch")
+    public ResponseEntity<Map<String, Object>> embedBatch(@RequestBody Map<String, List<String>> request) {
+        List<float[]> embeddings = new ArrayList<>();
+        for (String text : request.getOrDefault("texts", Collections.emptyList())) {
+            embeddings.add(embedding(text));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("embeddings", embeddings);
+        return ResponseEntity.ok(response);
+    }
+
+    private float[] embedding(String text) {
+        Random random = new Random(text.hashCode());
+        float[] vector = new float[dimension];
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
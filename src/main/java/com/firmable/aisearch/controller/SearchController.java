@@ -1,22 +1,45 @@
 package com.firmable.aisearch.controller;
 
+import com.firmable.aisearch.metrics.SearchMetrics;
 import com.firmable.aisearch.model.SearchResponse;
 import com.firmable.aisearch.model.SearchResult;
 import com.firmable.aisearch.model.ComprehensiveSearchResponse;
+import com.firmable.aisearch.service.ExportWriter;
 import com.firmable.aisearch.service.SearchService;
+import com.firmable.aisearch.service.SemanticSearchService;
+import com.firmable.aisearch.solr.FieldProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.beans.factory.annotation.Autowired;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/search")
 public class SearchController {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchController.class);
+
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private FieldProjection fieldProjection;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     public ResponseEntity<SearchResponse> search(
             @RequestParam(required = false) String query,
@@ -33,6 +56,7 @@ public class SearchController {
             @RequestParam(required = false) List<String> facetFields,
             @RequestParam(defaultValue = "10") int facetLimit
     ) throws Exception {
+        SearchMetrics.tagSearchType("lexical");
         ResponseEntity<String> solrResponse = searchService.search(query, industry, size, country, city, foundingYearFrom, foundingYearTo, tags, sort, page, sizePerPage, facetFields, facetLimit);
         String solrJson = solrResponse.getBody();
         Map<String, Integer> employeeFacets = searchService.extractEmployeeEstimateFacets(solrJson);
@@ -44,6 +68,7 @@ public class SearchController {
     public ResponseEntity<ComprehensiveSearchResponse> comprehensiveSearch(
             @RequestBody ComprehensiveSearchRequest request
     ) throws Exception {
+        SearchMetrics.tagSearchType(request.getSearchType() != null ? request.getSearchType() : "lexical");
         ComprehensiveSearchResponse response = searchService.comprehensiveSearch(
                 request.getQuery(),
                 request.getFilters(),
@@ -53,7 +78,9 @@ public class SearchController {
                 request.getPage() != null ? request.getPage() : 0,
                 request.getPageSize() != null ? request.getPageSize() : 10,
                 request.getReturnFields(),
-                request.getSearchType() != null ? request.getSearchType() : "lexical"
+                request.getSearchType() != null ? request.getSearchType() : "lexical",
+                request.getCursor(),
+                request.getVectorFields()
         );
         return ResponseEntity.ok(response);
     }
@@ -68,19 +95,12 @@ public class SearchController {
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) List<String> returnFields,
-            @RequestParam(defaultValue = "lexical") String searchType
+            @RequestParam(defaultValue = "lexical") String searchType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String vectorFields
     ) throws Exception {
-        // Parse filters from JSON string if provided
-        Map<String, Object> filtersMap = null;
-        if (filters != null && !filters.trim().isEmpty()) {
-            try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                filtersMap = mapper.readValue(filters, Map.class);
-            } catch (Exception e) {
-                // If parsing fails, ignore filters
-                filtersMap = null;
-            }
-        }
+        SearchMetrics.tagSearchType(searchType);
+        Map<String, Object> filtersMap = parseFilters(filters);
 
         ComprehensiveSearchResponse response = searchService.comprehensiveSearch(
                 query,
@@ -91,11 +111,89 @@ public class SearchController {
                 page,
                 pageSize,
                 returnFields,
-                searchType
+                searchType,
+                cursor,
+                SemanticSearchService.parseVectorFields(vectorFields)
         );
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Stream all matches as NDJSON or CSV, e.g. {@code /api/search/export?query=fintech&format=csv}.
+     * Same query understanding, filters and return fields as the comprehensive search; no facets or paging.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String filters,
+            @RequestParam(required = false) String sortField,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) List<String> returnFields,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "0") long limit
+    ) {
+        SearchMetrics.tagSearchType("export");
+        ExportWriter.Format exportFormat = ExportWriter.Format.parse(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, Object> filtersMap = parseFilters(filters);
+        List<String> fields = fieldProjection.resolve(FieldProjection.Endpoint.COMPREHENSIVE, returnFields);
+
+        // The body is written on an MVC async thread; keep the request id on its log lines
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        StreamingResponseBody body = out -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            long start = System.nanoTime();
+            try {
+                ExportWriter writer = new ExportWriter(exportFormat, fields, out, objectMapper);
+                long written = searchService.export(query, filtersMap, sortField, sortDirection, fields, limit, writer);
+                writer.flush();
+                log.info("Exported {} documents as {} in {}ms", written, exportFormat,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                // Headers are already sent; all that is left is to cut the stream short
+                log.error("Export failed", e);
+                throw new IOException("Export failed", e);
+            } finally {
+                MDC.clear();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"companies." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Every export thread busy and the queue full: the export was never started, so the client may retry
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> exportRejected(TaskRejectedException e) {
+        log.warn("Export rejected, export executor saturated");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+    }
+
+    /**
+     * Filters passed as a JSON object in a query parameter; unparseable filters are ignored
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parseFilters(String filters) {
+        if (filters == null || filters.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(filters, Map.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public static class ComprehensiveSearchRequest {
         private String query;
         private Map<String, Object> filters;
@@ -106,6 +204,8 @@ public class SearchController {
         private Integer pageSize;
         private List<String> returnFields;
         private String searchType;
+        private String cursor;
+        private Map<String, Double> vectorFields;
 
         public ComprehensiveSearchRequest() {}
 
@@ -135,5 +235,11 @@ public class SearchController {
         
         public String getSearchType() { return searchType; }
         public void setSearchType(String searchType) { this.searchType = searchType; }
+        
+        public String getCursor() { return cursor; }
+        public void setCursor(String cursor) { this.cursor = cursor; }
+
+        public Map<String, Double> getVectorFields() { return vectorFields; }
+        public void setVectorFields(Map<String, Double> vectorFields) { this.vectorFields = vectorFields; }
     }
 }
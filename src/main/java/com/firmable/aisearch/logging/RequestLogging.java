@@ -0,0 +1,105 @@
+package com.firmable.aisearch.logging;
+
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for request-path logging: the per-request debug flag, the sampling marker,
+ * compact rendering of Solr URLs and MDC propagation onto worker threads.
+ */
+public final class RequestLogging {
+
+    public static final String REQUEST_ID = "requestId";
+    public static final String DEBUG = "debug";
+
+    /**
+     * Per-request events carrying this marker are sampled by {@link SampledEventFilter}
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private static final int MAX_URL_LENGTH = 300;
+
+    // A bracketed list of at least 8 numbers, i.e. an embedding inside a knn query
+    private static final Pattern VECTOR = Pattern.compile("\\[\\s*-?[0-9.eE+-]+(\\s*,\\s*-?[0-9.eE+-]+){7,}\\s*]");
+
+    private RequestLogging() {}
+
+    /**
+     * True when the current request asked for verbose logging (response bodies, full vectors)
+     */
+    public static boolean isDebug() {
+        return "true".equals(MDC.get(DEBUG));
+    }
+
+    /**
+     * URL-decoded Solr path with embedded vectors collapsed to their dimension, truncated and tagged with
+     * a hash of the full URL so repeated queries can still be correlated.
+     */
+    public static String summarizeUrl(String pathAndQuery) {
+        if (pathAndQuery == null) {
+            return "";
+        }
+        String decoded;
+        try {
+            decoded = URLDecoder.decode(pathAndQuery, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            decoded = pathAndQuery;
+        }
+
+        Matcher matcher = VECTOR.matcher(decoded);
+        StringBuilder collapsed = new StringBuilder();
+        while (matcher.find()) {
+            int dimension = matcher.group().split(",").length;
+            matcher.appendReplacement(collapsed, "[<" + dimension + " floats>]");
+        }
+        matcher.appendTail(collapsed);
+
+        String summary = collapsed.length() > MAX_URL_LENGTH
+                ? collapsed.substring(0, MAX_URL_LENGTH) + "...(" + collapsed.length() + " chars)"
+                : collapsed.toString();
+        return summary + " #" + Integer.toHexString(pathAndQuery.hashCode());
+    }
+
+    /**
+     * Log argument that renders as {@link #summarizeUrl} of the request's {@code toString()} only when the event
+     * is written, so the ones {@link SampledEventFilter} drops cost no decoding or vector matching
+     */
+    public static Object lazySummary(Object request) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return summarizeUrl(request != null ? request.toString() : null);
+            }
+        };
+    }
+
+    /**
+     * Run the task with the submitting thread's MDC, so worker-thread log lines keep the request id and debug flag
+     */
+    public static Runnable withMdc(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            MDC.setContextMap(context);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    MDC.setContextMap(previous);
+                } else {
+                    MDC.clear();
+                }
+            }
+        };
+    }
+}
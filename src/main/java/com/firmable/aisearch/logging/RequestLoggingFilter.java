@@ -0,0 +1,47 @@
+package com.firmable.aisearch.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Puts a request id and the per-request debug flag into the MDC for the duration of each request.
+ * The id is taken from {@code X-Request-Id} when the caller supplies one and echoed back on the response;
+ * {@code X-Debug: true} turns on verbose logging for that request only, when {@code logging.request-debug.enabled}
+ * is set; it is off by default, as any caller could otherwise have full queries and vectors logged.
+ */
+@Component
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    @Value("${logging.request-debug.enabled:false}")
+    private boolean debugEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader("X-Request-Id");
+        if (requestId == null || requestId.isBlank() || requestId.length() > 64) {
+            requestId = UUID.randomUUID().toString().substring(0, 8);
+        }
+        response.setHeader("X-Request-Id", requestId);
+
+        MDC.put(RequestLogging.REQUEST_ID, requestId);
+        if (debugEnabled && "true".equalsIgnoreCase(request.getHeader("X-Debug"))) {
+            MDC.put(RequestLogging.DEBUG, "true");
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(RequestLogging.REQUEST_ID);
+            MDC.remove(RequestLogging.DEBUG);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.firmable.aisearch.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback filter that lets through one in {@code rate} events marked {@link RequestLogging#SAMPLED}.
+ * Events from requests with the debug flag set, and events without the marker, are never dropped.
+ */
+public class SampledEventFilter extends Filter<ILoggingEvent> {
+
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 100;
+
+    public void setRate(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        List<Marker> markers = event.getMarkerList();
+        if (markers == null || !markers.contains(RequestLogging.SAMPLED)) {
+            return FilterReply.NEUTRAL;
+        }
+        if ("true".equals(event.getMDCPropertyMap().get(RequestLogging.DEBUG))) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,94 @@
+package com.firmable.aisearch.metrics;
+
+import com.firmable.aisearch.model.ComprehensiveSearchResponse;
+import com.firmable.aisearch.service.QueryUnderstandingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-path meters: per-stage latency histograms, query-understanding hit counts, and the
+ * searchType tag that {@link SearchTypeObservationConvention} adds to the HTTP server timers.
+ */
+@Component
+public class SearchMetrics {
+
+    public static final String STAGE_TIMER = "search.stage.duration";
+    public static final String QUERY_UNDERSTANDING_COUNTER = "query.understanding.entities";
+
+    static final String SEARCH_TYPE_ATTRIBUTE = SearchMetrics.class.getName() + ".searchType";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Tag the current HTTP request's timer with the search type; a no-op outside a request
+     */
+    public static void tagSearchType(String searchType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(SEARCH_TYPE_ATTRIBUTE, searchTypeTag(searchType), RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * One histogram sample per stage that ran, tagged with the stage and search type
+     */
+    public void recordStageTimings(String searchType, ComprehensiveSearchResponse.StageTimings timings) {
+        String type = searchTypeTag(searchType);
+        record(type, "query_understanding", timings.getQueryUnderstandingNanos());
+        record(type, "embedding", timings.getEmbeddingNanos());
+        record(type, "solr_round_trip", timings.getSolrRoundTripNanos());
+        record(type, "solr_qtime", timings.getSolrQTimeNanos());
+        record(type, "parse", timings.getParseNanos());
+        record(type, "post_processing", timings.getPostProcessingNanos());
+        record(type, "total", timings.getTotalNanos());
+    }
+
+    /**
+     * Whether query understanding found industries and locations; hit rate is hit / (hit + miss) per entity
+     */
+    public void recordQueryUnderstanding(QueryUnderstandingService.ParsedQuery parsedQuery) {
+        count("industry", parsedQuery.hasIndustryFilters());
+        count("location", parsedQuery.hasLocationFilters());
+    }
+
+    /**
+     * Tag value for a requested search type, limited to the known types to keep tag cardinality bounded
+     */
+    public static String searchTypeTag(String searchType) {
+        if ("lexical".equals(searchType) || "semantic".equals(searchType) || "hybrid".equals(searchType)
+                || "autosuggest".equals(searchType) || "export".equals(searchType)) {
+            return searchType;
+        }
+        return "other";
+    }
+
+    private void record(String searchType, String stage, long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        Timer.builder(STAGE_TIMER)
+                .description("Time spent in each stage of a comprehensive search")
+                .tag("stage", stage)
+                .tag("searchType", searchType)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void count(String entity, boolean hit) {
+        Counter.builder(QUERY_UNDERSTANDING_COUNTER)
+                .description("Queries in which query understanding did or did not detect the entity")
+                .tag("entity", entity)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+}
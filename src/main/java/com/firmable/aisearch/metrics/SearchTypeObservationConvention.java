@@ -0,0 +1,22 @@
+package com.firmable.aisearch.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds a {@code searchType} tag to the {@code http.server.requests} timers, taken from what the controller
+ * recorded with {@link SearchMetrics#tagSearchType(String)}; requests that did not record one are tagged "none".
+ */
+@Component
+public class SearchTypeObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object searchType = context.getCarrier().getAttribute(SearchMetrics.SEARCH_TYPE_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of("searchType", searchType != null ? searchType.toString() : "none"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.firmable.aisearch.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 import java.util.Map;
@@ -71,6 +72,10 @@ public class ComprehensiveSearchResponse {
         @JsonProperty("hasPrevious")
         private boolean hasPrevious;
 
+        // Cursor paging only: pass back as cursor for the next page; null on the last page
+        @JsonProperty("nextCursor")
+        private String nextCursor;
+
         public PaginationInfo() {}
 
         public PaginationInfo(int currentPage, int pageSize, long totalResults) {
@@ -95,6 +100,20 @@ public class ComprehensiveSearchResponse {
         
         public boolean isHasPrevious() { return hasPrevious; }
         public void setHasPrevious(boolean hasPrevious) { this.hasPrevious = hasPrevious; }
+        
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+        
+        public PaginationInfo copy() {
+            PaginationInfo copy = new PaginationInfo();
+            copy.currentPage = currentPage;
+            copy.pageSize = pageSize;
+            copy.totalPages = totalPages;
+            copy.hasNext = hasNext;
+            copy.hasPrevious = hasPrevious;
+            copy.nextCursor = nextCursor;
+            return copy;
+        }
     }
 
     public static class QueryInfo {
@@ -107,8 +126,12 @@ public class ComprehensiveSearchResponse {
         @JsonProperty("sort")
         private String sort;
         
+        // Total wall-clock time in milliseconds
         @JsonProperty("executionTime")
         private long executionTime;
+        
+        @JsonProperty("timings")
+        private StageTimings timings;
 
         public QueryInfo() {}
 
@@ -130,6 +153,72 @@ public class ComprehensiveSearchResponse {
         
         public long getExecutionTime() { return executionTime; }
         public void setExecutionTime(long executionTime) { this.executionTime = executionTime; }
+        
+        public StageTimings getTimings() { return timings; }
+        public void setTimings(StageTimings timings) { this.timings = timings; }
+        
+        public QueryInfo copy() {
+            QueryInfo copy = new QueryInfo(query, filters, sort, executionTime);
+            copy.timings = timings;
+            return copy;
+        }
+    }
+
+    /**
+     * Where the time of one search went, in nanoseconds. Stages that did not run stay 0.
+     * Solr only reports QTime in whole milliseconds, so solrQTimeNanos is that value scaled.
+     */
+    public static class StageTimings {
+        @JsonProperty("queryUnderstandingNanos")
+        private long queryUnderstandingNanos;
+        
+        @JsonProperty("embeddingNanos")
+        private long embeddingNanos;
+        
+        @JsonProperty("solrRoundTripNanos")
+        private long solrRoundTripNanos;
+        
+        @JsonProperty("solrQTimeNanos")
+        private long solrQTimeNanos;
+        
+        @JsonProperty("parseNanos")
+        private long parseNanos;
+        
+        @JsonProperty("postProcessingNanos")
+        private long postProcessingNanos;
+        
+        @JsonProperty("totalNanos")
+        private long totalNanos;
+        
+        // Set when a stage failed and the search fell back to partial results
+        @JsonIgnore
+        private boolean degraded;
+
+        public StageTimings() {}
+
+        public long getQueryUnderstandingNanos() { return queryUnderstandingNanos; }
+        public void setQueryUnderstandingNanos(long queryUnderstandingNanos) { this.queryUnderstandingNanos = queryUnderstandingNanos; }
+        
+        public long getEmbeddingNanos() { return embeddingNanos; }
+        public void setEmbeddingNanos(long embeddingNanos) { this.embeddingNanos = embeddingNanos; }
+        
+        public long getSolrRoundTripNanos() { return solrRoundTripNanos; }
+        public void setSolrRoundTripNanos(long solrRoundTripNanos) { this.solrRoundTripNanos = solrRoundTripNanos; }
+        
+        public long getSolrQTimeNanos() { return solrQTimeNanos; }
+        public void setSolrQTimeNanos(long solrQTimeNanos) { this.solrQTimeNanos = solrQTimeNanos; }
+        
+        public long getParseNanos() { return parseNanos; }
+        public void setParseNanos(long parseNanos) { this.parseNanos = parseNanos; }
+        
+        public long getPostProcessingNanos() { return postProcessingNanos; }
+        public void setPostProcessingNanos(long postProcessingNanos) { this.postProcessingNanos = postProcessingNanos; }
+        
+        public long getTotalNanos() { return totalNanos; }
+        public void setTotalNanos(long totalNanos) { this.totalNanos = totalNanos; }
+        
+        public boolean isDegraded() { return degraded; }
+        public void setDegraded(boolean degraded) { this.degraded = degraded; }
     }
 
     public static class SearchMetadata {
@@ -144,6 +233,20 @@ public class ComprehensiveSearchResponse {
         
         @JsonProperty("totalResultsCount")
         private int totalResultsCount;
+        
+        // "hit", "miss", or "bypass" for a degraded response, when the response cache is enabled
+        @JsonProperty("cacheStatus")
+        private String cacheStatus;
+        
+        @JsonProperty("cacheHits")
+        private long cacheHits;
+        
+        @JsonProperty("cacheMisses")
+        private long cacheMisses;
+        
+        // True when the embedding or a retrieval leg failed and the results are partial; such responses are not cached
+        @JsonProperty("degraded")
+        private boolean degraded;
 
         public SearchMetadata() {}
 
@@ -165,5 +268,27 @@ public class ComprehensiveSearchResponse {
         
         public int getTotalResultsCount() { return totalResultsCount; }
         public void setTotalResultsCount(int totalResultsCount) { this.totalResultsCount = totalResultsCount; }
+        
+        public String getCacheStatus() { return cacheStatus; }
+        public void setCacheStatus(String cacheStatus) { this.cacheStatus = cacheStatus; }
+        
+        public long getCacheHits() { return cacheHits; }
+        public void setCacheHits(long cacheHits) { this.cacheHits = cacheHits; }
+        
+        public long getCacheMisses() { return cacheMisses; }
+        public void setCacheMisses(long cacheMisses) { this.cacheMisses = cacheMisses; }
+        
+        public boolean isDegraded() { return degraded; }
+        public void setDegraded(boolean degraded) { this.degraded = degraded; }
+        
+        public SearchMetadata copy() {
+            SearchMetadata copy = new SearchMetadata(searchType, lexicalResultsCount, semanticResultsCount);
+            copy.totalResultsCount = totalResultsCount;
+            copy.cacheStatus = cacheStatus;
+            copy.cacheHits = cacheHits;
+            copy.cacheMisses = cacheMisses;
+            copy.degraded = degraded;
+            return copy;
+        }
     }
 }
\ No newline at end of file
@@ -2,59 +2,98 @@ package com.firmable.aisearch.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.solr.SolrClient;
+import com.firmable.aisearch.logging.RequestLogging;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
 @Service
 public class AutosuggestService {
-    
-    private static final String SOLR_URL = "http://localhost:8983/solr/company";
+
+    private static final Logger log = LoggerFactory.getLogger(AutosuggestService.class);
     
     @Autowired
     private QueryUnderstandingService queryUnderstandingService;
     
+    @Autowired
+    private SolrClient solrClient;
+    
+    @Autowired
+    private SuggesterService suggesterService;
+    
+    @Autowired
+    private CompanyNameIndex companyNameIndex;
+    
+    @Autowired
+    private FacetDictionaryService facetDictionaryService;
+    
+    @Autowired
+    @Qualifier("autosuggestExecutor")
+    private ExecutorService autosuggestExecutor;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Overall budget for all sources; anything slower is dropped and reported in partialSources
+    @Value("${autosuggest.deadline-ms:50}")
+    private long deadlineMs;
+    
+    // Candidates pulled from the local index per requested suggestion, re-ranked by calculatePrefixScore
+    private static final int COMPANY_INDEX_OVERFETCH = 4;
+    
     public AutosuggestResponse getAutosuggestions(String query, int maxSuggestions) {
+        return getAutosuggestions(query, maxSuggestions, EnumSet.allOf(SuggestionType.class));
+    }
+    
+    /**
+     * Compute suggestions for the selected types only; unselected sources are never queried.
+     */
+    public AutosuggestResponse getAutosuggestions(String query, int maxSuggestions, Set<SuggestionType> types) {
         AutosuggestResponse response = new AutosuggestResponse();
         
-        if (query == null || query.trim().length() < 2) {
+        if (query == null || query.trim().length() < 2 || types == null || types.isEmpty()) {
             return response; // Return empty response for very short queries
         }
         
         String normalizedQuery = query.toLowerCase().trim();
         
         try {
-            // Get company name suggestions
-            List<Suggestion> companyNames = getCompanyNameSuggestions(normalizedQuery, maxSuggestions / 3);
-            
-            // Get industry suggestions 
-            List<Suggestion> industries = getIndustrySuggestions(normalizedQuery, maxSuggestions / 3);
-            
-            // Get location suggestions
-            List<Suggestion> locations = getLocationSuggestions(normalizedQuery, maxSuggestions / 3);
-            
-            // Get intelligent query suggestions based on natural language patterns
-            List<Suggestion> queryTemplates = getQueryTemplateSuggestions(normalizedQuery, maxSuggestions / 4);
-            
-            response.setCompanyNames(companyNames);
-            response.setIndustries(industries);
-            response.setLocations(locations);
-            response.setQueryTemplates(queryTemplates);
+            // Fan the selected sources out concurrently; they share one deadline instead of adding up
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+            Map<SuggestionType, Future<List<Suggestion>>> futures = new EnumMap<>(SuggestionType.class);
+            for (SuggestionType type : types) {
+                int limit = sourceLimit(type, maxSuggestions, types.size());
+                futures.put(type, submitSource(() -> getSuggestions(type, normalizedQuery, limit)));
+            }
             
-            // Create combined suggestions for overall autosuggest
+            // EnumMap iterates in declaration order, so allSuggestions is assembled deterministically
+            // and the stable sort below keeps that order among equal scores
+            List<String> partialSources = new ArrayList<>();
             List<Suggestion> allSuggestions = new ArrayList<>();
-            allSuggestions.addAll(companyNames);
-            allSuggestions.addAll(industries);
-            allSuggestions.addAll(locations);
-            allSuggestions.addAll(queryTemplates);
+            for (Map.Entry<SuggestionType, Future<List<Suggestion>>> entry : futures.entrySet()) {
+                SuggestionType type = entry.getKey();
+                List<Suggestion> suggestions = awaitSource(type.getName(), entry.getValue(), deadline, partialSources);
+                switch (type) {
+                    case COMPANY -> response.setCompanyNames(suggestions);
+                    case INDUSTRY -> response.setIndustries(suggestions);
+                    case LOCATION -> response.setLocations(suggestions);
+                    case TEMPLATE -> response.setQueryTemplates(suggestions);
+                }
+                allSuggestions.addAll(suggestions);
+            }
+            response.setPartialSources(partialSources);
             
             // Sort by relevance and limit to maxSuggestions
             allSuggestions.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
@@ -65,31 +104,97 @@ public class AutosuggestService {
             response.setAllSuggestions(allSuggestions);
             
         } catch (Exception e) {
-            System.err.println("Error generating autosuggestions: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error generating autosuggestions", e);
         }
         
         return response;
     }
     
+    private List<Suggestion> getSuggestions(SuggestionType type, String query, int limit) throws Exception {
+        return switch (type) {
+            case COMPANY -> getCompanyNameSuggestions(query, limit);
+            case INDUSTRY -> getIndustrySuggestions(query, limit);
+            case LOCATION -> getLocationSuggestions(query, limit);
+            case TEMPLATE -> getQueryTemplateSuggestions(query, limit);
+        };
+    }
+    
+    /**
+     * With every type selected keep the original split (a third each for the Solr-backed sources,
+     * a quarter for templates); a narrower selection shares the limit evenly.
+     */
+    private int sourceLimit(SuggestionType type, int maxSuggestions, int selectedCount) {
+        if (selectedCount == SuggestionType.values().length) {
+            return type == SuggestionType.TEMPLATE ? maxSuggestions / 4 : maxSuggestions / 3;
+        }
+        return Math.max(1, maxSuggestions / selectedCount);
+    }
+    
+    private Future<List<Suggestion>> submitSource(Callable<List<Suggestion>> source) {
+        try {
+            return autosuggestExecutor.submit(source);
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: report the source as partial rather than queueing behind other requests
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Wait for a source until the shared deadline. Late or failed sources yield no suggestions
+     * and are recorded in partialSources.
+     */
+    private List<Suggestion> awaitSource(String name, Future<List<Suggestion>> future, long deadline, List<String> partialSources) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            markPartial(name, "timeout", partialSources);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            markPartial(name, "interrupted", partialSources);
+        } catch (ExecutionException e) {
+            log.warn("Autosuggest source '{}' failed: {}", name, e.getCause().getMessage());
+            markPartial(name, e.getCause() instanceof RejectedExecutionException ? "rejected" : "error", partialSources);
+        }
+        return new ArrayList<>();
+    }
+    
+    private void markPartial(String name, String reason, List<String> partialSources) {
+        partialSources.add(name);
+        Counter.builder("autosuggest.source.partial")
+                .description("Autosuggest sources dropped from a response")
+                .tag("source", name)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+    
     private List<Suggestion> getCompanyNameSuggestions(String query, int limit) throws Exception {
-        RestTemplate restTemplate = new RestTemplate();
+        // Serve from the in-memory prefix index when it is loaded, without touching Solr
+        if (companyNameIndex.isLoaded()) {
+            return getCompanyNamesFromIndex(query, limit);
+        }
+        
+        // The dictionary is built by SuggesterService; until the first build completes use prefix matching
+        if (!suggesterService.isReady()) {
+            return getCompanyNamesByPrefix(query, limit);
+        }
         
-        // Use Solr suggest component for company names
-        String solrQuery = SOLR_URL + "/suggest?suggest=true&suggest.build=true&suggest.dictionary=companySuggester&suggest.q=" + 
+        // Use Solr suggest component for company names (read-only, never rebuilds the dictionary)
+        String solrQuery = "/suggest?suggest=true&suggest.dictionary=" + SuggesterService.DICTIONARY + "&suggest.q=" + 
                           URLEncoder.encode(query, StandardCharsets.UTF_8) + "&suggest.count=" + limit;
         
-        System.out.println("Company suggest query: " + solrQuery);
+        log.debug(RequestLogging.SAMPLED, "Company suggest query: {}", solrQuery);
         
         try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                solrQuery, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+            ResponseEntity<String> response = solrClient.get(solrQuery);
             
             ObjectMapper mapper = new ObjectMapper();
             JsonNode root = mapper.readTree(response.getBody());
             
             List<Suggestion> suggestions = new ArrayList<>();
-            JsonNode suggestNode = root.path("suggest").path("companySuggester").path(query);
+            JsonNode suggestNode = root.path("suggest").path(SuggesterService.DICTIONARY).path(query);
             
             if (suggestNode.isArray() && suggestNode.size() > 0) {
                 JsonNode suggestionsArray = suggestNode.get(0).path("suggestions");
@@ -108,20 +213,34 @@ public class AutosuggestService {
             return suggestions;
             
         } catch (Exception e) {
-            System.err.println("Company suggest failed, using fallback: " + e.getMessage());
+            log.warn("Company suggest failed, using fallback: {}", e.getMessage());
             return getCompanyNamesByPrefix(query, limit);
         }
     }
     
-    private List<Suggestion> getCompanyNamesByPrefix(String query, int limit) throws Exception {
-        RestTemplate restTemplate = new RestTemplate();
+    private List<Suggestion> getCompanyNamesFromIndex(String query, int limit) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (CompanyNameIndex.Completion completion : companyNameIndex.complete(query, limit * COMPANY_INDEX_OVERFETCH)) {
+            String name = completion.getName();
+            suggestions.add(new Suggestion(name, "company", calculatePrefixScore(query, name),
+                "Search for companies named: " + name));
+        }
+        
+        // Stable sort keeps the index's popularity order among equal scores
+        suggestions.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+        if (suggestions.size() > limit) {
+            suggestions = suggestions.subList(0, limit);
+        }
         
+        return suggestions;
+    }
+    
+    private List<Suggestion> getCompanyNamesByPrefix(String query, int limit) throws Exception {
         // Fallback: Use regular search with prefix matching
-        String solrQuery = SOLR_URL + "/select?q=name:" + URLEncoder.encode(query + "*", StandardCharsets.UTF_8) + 
+        String solrQuery = "/select?q=name:" + URLEncoder.encode(query + "*", StandardCharsets.UTF_8) + 
                           "&fl=name,name_s&rows=" + limit + "&wt=json";
         
-        ResponseEntity<String> response = restTemplate.exchange(
-            solrQuery, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+        ResponseEntity<String> response = solrClient.get(solrQuery);
         
         ObjectMapper mapper = new ObjectMapper();
         JsonNode root = mapper.readTree(response.getBody());
@@ -144,32 +263,32 @@ public class AutosuggestService {
     }
     
     private List<Suggestion> getIndustrySuggestions(String query, int limit) throws Exception {
-        RestTemplate restTemplate = new RestTemplate();
-        
-        // Get industry facets that match the query
-        String solrQuery = SOLR_URL + "/select?q=*:*&facet=true&facet.field=industry&facet.limit=" + (limit * 3) + 
-                          "&facet.mincount=1&facet.prefix=" + URLEncoder.encode(query, StandardCharsets.UTF_8) + "&rows=0&wt=json";
-        
-        ResponseEntity<String> response = restTemplate.exchange(
-            solrQuery, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (FacetDictionaryService.FacetValue match : getMatchingFacetValues(FacetDictionaryService.INDUSTRY_FIELD, query, limit)) {
+            String industry = match.getValue();
+            int count = match.getCount();
+            float score = calculateFacetScore(query, industry, count);
+            suggestions.add(new Suggestion(industry, "industry", score, 
+                "Search in " + industry + " industry (" + count + " companies)"));
+        }
         
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(response.getBody());
+        // Sort by score and limit
+        suggestions.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+        if (suggestions.size() > limit) {
+            suggestions = suggestions.subList(0, limit);
+        }
         
+        return suggestions;
+    }
+    
+    private List<Suggestion> getLocationSuggestions(String query, int limit) throws Exception {
         List<Suggestion> suggestions = new ArrayList<>();
-        JsonNode facetFields = root.path("facet_counts").path("facet_fields").path("industry");
-        
-        if (facetFields.isArray()) {
-            for (int i = 0; i < facetFields.size() - 1; i += 2) {
-                String industry = facetFields.get(i).asText();
-                int count = facetFields.get(i + 1).asInt();
-                
-                if (industry.toLowerCase().contains(query)) {
-                    float score = calculateFacetScore(query, industry, count);
-                    suggestions.add(new Suggestion(industry, "industry", score, 
-                        "Search in " + industry + " industry (" + count + " companies)"));
-                }
-            }
+        for (FacetDictionaryService.FacetValue match : getMatchingFacetValues(FacetDictionaryService.LOCATION_FIELD, query, limit)) {
+            String location = match.getValue();
+            int count = match.getCount();
+            float score = calculateFacetScore(query, location, count);
+            suggestions.add(new Suggestion(location, "location", score, 
+                "Search companies in " + location + " (" + count + " companies)"));
         }
         
         // Sort by score and limit
@@ -181,42 +300,37 @@ public class AutosuggestService {
         return suggestions;
     }
     
-    private List<Suggestion> getLocationSuggestions(String query, int limit) throws Exception {
-        RestTemplate restTemplate = new RestTemplate();
+    /**
+     * Facet values containing the query, from the cached dictionary when loaded, otherwise from Solr
+     */
+    private List<FacetDictionaryService.FacetValue> getMatchingFacetValues(String field, String query, int limit) throws Exception {
+        if (facetDictionaryService.isLoaded(field)) {
+            return facetDictionaryService.match(field, query);
+        }
         
-        // Get location facets that match the query
-        String solrQuery = SOLR_URL + "/select?q=*:*&facet=true&facet.field=locality&facet.limit=" + (limit * 3) + 
-                          "&facet.mincount=1&rows=0&wt=json";
+        // Fallback: let Solr do the case-insensitive substring match rather than filtering an unfiltered top-N here
+        String solrQuery = "/select?q=*:*&facet=true&facet.field=" + field + "&facet.limit=" + (limit * 3) + 
+                          "&facet.mincount=1&facet.contains=" + URLEncoder.encode(query, StandardCharsets.UTF_8) +
+                          "&facet.contains.ignoreCase=true&rows=0&wt=json";
         
-        ResponseEntity<String> response = restTemplate.exchange(
-            solrQuery, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+        ResponseEntity<String> response = solrClient.get(solrQuery);
         
         ObjectMapper mapper = new ObjectMapper();
         JsonNode root = mapper.readTree(response.getBody());
         
-        List<Suggestion> suggestions = new ArrayList<>();
-        JsonNode facetFields = root.path("facet_counts").path("facet_fields").path("locality");
+        List<FacetDictionaryService.FacetValue> matches = new ArrayList<>();
+        JsonNode facetFields = root.path("facet_counts").path("facet_fields").path(field);
         
         if (facetFields.isArray()) {
             for (int i = 0; i < facetFields.size() - 1; i += 2) {
-                String location = facetFields.get(i).asText();
-                int count = facetFields.get(i + 1).asInt();
-                
-                if (location.toLowerCase().contains(query)) {
-                    float score = calculateFacetScore(query, location, count);
-                    suggestions.add(new Suggestion(location, "location", score, 
-                        "Search companies in " + location + " (" + count + " companies)"));
+                String value = facetFields.get(i).asText();
+                if (value.toLowerCase().contains(query)) {
+                    matches.add(new FacetDictionaryService.FacetValue(value, facetFields.get(i + 1).asInt()));
                 }
             }
         }
         
-        // Sort by score and limit
-        suggestions.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
-        if (suggestions.size() > limit) {
-            suggestions = suggestions.subList(0, limit);
-        }
-        
-        return suggestions;
+        return matches;
     }
     
     private List<Suggestion> getQueryTemplateSuggestions(String query, int limit) {
@@ -295,7 +409,7 @@ public class AutosuggestService {
         return suggestions;
     }
     
-    private float calculatePrefixScore(String query, String candidate) {
+    static float calculatePrefixScore(String query, String candidate) {
         String lowerQuery = query.toLowerCase();
         String lowerCandidate = candidate.toLowerCase();
         
@@ -310,18 +424,54 @@ public class AutosuggestService {
         }
     }
     
-    private float calculateFacetScore(String query, String facetValue, int count) {
+    static float calculateFacetScore(String query, String facetValue, int count) {
         float baseScore = calculatePrefixScore(query, facetValue);
         float countBoost = Math.min(1.0f, count / 1000.0f); // Boost based on popularity
         return baseScore * (0.7f + countBoost * 0.3f);
     }
     
+    public enum SuggestionType {
+        COMPANY("company"),
+        INDUSTRY("industry"),
+        LOCATION("location"),
+        TEMPLATE("template");
+        
+        private final String label;
+        
+        SuggestionType(String label) {
+            this.label = label;
+        }
+        
+        public String getName() { return label; }
+        
+        /**
+         * Parse request values such as "company" or "companies"; unknown values are ignored
+         */
+        public static Set<SuggestionType> parse(Collection<String> requested) {
+            Set<SuggestionType> types = EnumSet.noneOf(SuggestionType.class);
+            if (requested == null) {
+                return types;
+            }
+            for (String value : requested) {
+                String normalized = value.trim().toLowerCase();
+                for (SuggestionType type : values()) {
+                    if (normalized.equals(type.label) || normalized.equals(type.label + "s")
+                            || (type == INDUSTRY && normalized.equals("industries"))) {
+                        types.add(type);
+                    }
+                }
+            }
+            return types;
+        }
+    }
+    
     public static class AutosuggestResponse {
         private List<Suggestion> allSuggestions = new ArrayList<>();
         private List<Suggestion> companyNames = new ArrayList<>();
         private List<Suggestion> industries = new ArrayList<>();
         private List<Suggestion> locations = new ArrayList<>();
         private List<Suggestion> queryTemplates = new ArrayList<>();
+        private List<String> partialSources = new ArrayList<>();
         
         public List<Suggestion> getAllSuggestions() { return allSuggestions; }
         public void setAllSuggestions(List<Suggestion> allSuggestions) { this.allSuggestions = allSuggestions; }
@@ -337,6 +487,9 @@ public class AutosuggestService {
         
         public List<Suggestion> getQueryTemplates() { return queryTemplates; }
         public void setQueryTemplates(List<Suggestion> queryTemplates) { this.queryTemplates = queryTemplates; }
+        
+        public List<String> getPartialSources() { return partialSources; }
+        public void setPartialSources(List<String> partialSources) { this.partialSources = partialSources; }
     }
     
     public static class Suggestion {
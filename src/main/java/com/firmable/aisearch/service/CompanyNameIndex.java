@@ -0,0 +1,352 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.solr.IndexVersionChangedEvent;
+import com.firmable.aisearch.solr.SolrClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory weighted prefix index over company names, used to serve autosuggest completions
+ * without a Solr round trip.
+ *
+ * Every name is indexed under each of its word-start suffixes ("acme cloud labs", "cloud labs", "labs"),
+ * which mirrors the word-prefix behaviour of the {@code name:query*} Solr fallback. Keys are kept in one
+ * sorted array so a prefix maps to a contiguous range; a max-weight segment tree over that array returns
+ * the heaviest k names in the range in O(k log n) without scanning it.
+ *
+ * The index is loaded once with a cursor over the whole core, then refreshed incrementally by fetching only
+ * documents whose {@code _version_} is newer than the last one seen. A periodic full reload drops deleted names.
+ */
+@Service
+public class CompanyNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CompanyNameIndex.class);
+
+    @Autowired
+    private SolrClient solrClient;
+
+    @Value("${autosuggest.company-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${autosuggest.company-index.name-field:name_s}")
+    private String nameField;
+
+    @Value("${autosuggest.company-index.weight-field:current_employee_estimate_l}")
+    private String weightField;
+
+    @Value("${autosuggest.company-index.batch-size:5000}")
+    private int batchSize;
+
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "company-index-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            submitLoad(true);
+        }
+    }
+
+    @EventListener
+    public void onIndexVersionChanged(IndexVersionChangedEvent event) {
+        if (enabled) {
+            submitLoad(false);
+        }
+    }
+
+    @Scheduled(cron = "${autosuggest.company-index.full-reload-cron:0 30 3 * * *}")
+    public void scheduledFullReload() {
+        if (enabled) {
+            submitLoad(true);
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current != null ? current.names.length : 0;
+    }
+
+    /**
+     * Top {@code limit} names by weight having a word that starts with {@code prefix}
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        Snapshot current = snapshot;
+        if (current == null || prefix == null || prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return current.topK(prefix.toLowerCase(), limit);
+    }
+
+    private void submitLoad(boolean full) {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        loadExecutor.submit(() -> {
+            try {
+                if (full || snapshot == null) {
+                    fullLoad();
+                } else {
+                    incrementalLoad();
+                }
+            } catch (Exception e) {
+                log.warn("Company name index load failed: {}", e.getMessage());
+            } finally {
+                loading.set(false);
+            }
+        });
+    }
+
+    private void fullLoad() throws Exception {
+        long start = System.currentTimeMillis();
+        Map<String, Completion> entries = new HashMap<>();
+        long maxVersion = fetch(null, entries);
+        snapshot = Snapshot.build(entries.values(), maxVersion);
+        log.info("Company name index loaded: {} names in {}ms", snapshot.names.length, System.currentTimeMillis() - start);
+    }
+
+    private void incrementalLoad() throws Exception {
+        Snapshot current = snapshot;
+        Map<String, Completion> delta = new HashMap<>();
+        long maxVersion = fetch(current.maxVersion, delta);
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        Map<String, Completion> merged = new HashMap<>(current.names.length + delta.size());
+        for (int i = 0; i < current.names.length; i++) {
+            merged.put(current.names[i].toLowerCase(), new Completion(current.names[i], current.weights[i]));
+        }
+        // Updated documents replace the previous weight for the same name
+        merged.putAll(delta);
+        snapshot = Snapshot.build(merged.values(), Math.max(maxVersion, current.maxVersion));
+        log.info("Company name index refreshed: {} changed names, {} total", delta.size(), snapshot.names.length);
+    }
+
+    /**
+     * Walk the core with cursorMark, collecting names (deduplicated case-insensitively, keeping the highest weight).
+     * @param sinceVersion only fetch documents with a newer _version_, or everything when null
+     * @return highest _version_ seen
+     */
+    private long fetch(Long sinceVersion, Map<String, Completion> into) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String filter = nameField + ":[* TO *]";
+        if (sinceVersion != null) {
+            filter += " AND _version_:{" + sinceVersion + " TO *]";
+        }
+        String baseQuery = "/select?q=*:*&wt=json&sort=id+asc&rows=" + batchSize +
+                "&fl=" + nameField + "," + weightField + ",_version_" +
+                "&fq=" + URLEncoder.encode(filter, StandardCharsets.UTF_8);
+
+        long maxVersion = sinceVersion != null ? sinceVersion : 0L;
+        String cursorMark = "*";
+        while (true) {
+            ResponseEntity<String> response = solrClient.get(baseQuery + "&cursorMark=" + URLEncoder.encode(cursorMark, StandardCharsets.UTF_8));
+            JsonNode root = mapper.readTree(response.getBody());
+
+            for (JsonNode doc : root.path("response").path("docs")) {
+                String name = doc.path(nameField).asText();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                float weight = (float) Math.log1p(Math.max(0, doc.path(weightField).asDouble()));
+                into.merge(name.toLowerCase(), new Completion(name, weight),
+                        (a, b) -> a.getWeight() >= b.getWeight() ? a : b);
+                maxVersion = Math.max(maxVersion, doc.path("_version_").asLong());
+            }
+
+            String nextCursorMark = root.path("nextCursorMark").asText(cursorMark);
+            if (nextCursorMark.equals(cursorMark)) {
+                return maxVersion;
+            }
+            cursorMark = nextCursorMark;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+
+    public static class Completion {
+        private final String name;
+        private final float weight;
+
+        public Completion(String name, float weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        public String getName() { return name; }
+        public float getWeight() { return weight; }
+    }
+
+    /**
+     * Immutable index state; replaced wholesale on every load so readers never lock.
+     */
+    static final class Snapshot {
+        final String[] names;
+        final float[] weights;
+        final long maxVersion;
+
+        // Sorted word-start suffix keys and the name each one belongs to
+        private final String[] keys;
+        private final int[] keyNames;
+        // Segment tree over key positions holding the position with the highest name weight
+        private final int[] tree;
+        private final int leaves;
+
+        private Snapshot(String[] names, float[] weights, String[] keys, int[] keyNames, long maxVersion) {
+            this.names = names;
+            this.weights = weights;
+            this.keys = keys;
+            this.keyNames = keyNames;
+            this.maxVersion = maxVersion;
+
+            int size = 1;
+            while (size < Math.max(1, keys.length)) {
+                size <<= 1;
+            }
+            this.leaves = size;
+            this.tree = new int[2 * size];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < keys.length; i++) {
+                tree[size + i] = i;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        static Snapshot build(Collection<Completion> entries, long maxVersion) {
+            String[] names = new String[entries.size()];
+            float[] weights = new float[entries.size()];
+            List<KeyRef> keyRefs = new ArrayList<>(entries.size() * 3);
+
+            int n = 0;
+            for (Completion entry : entries) {
+                names[n] = entry.getName();
+                weights[n] = entry.getWeight();
+                String lower = entry.getName().toLowerCase();
+                for (int i = 0; i < lower.length(); i++) {
+                    if (Character.isLetterOrDigit(lower.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1)))) {
+                        keyRefs.add(new KeyRef(lower.substring(i), n));
+                    }
+                }
+                n++;
+            }
+
+            keyRefs.sort(Comparator.comparing(ref -> ref.key));
+            String[] keys = new String[keyRefs.size()];
+            int[] keyNames = new int[keyRefs.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = keyRefs.get(i).key;
+                keyNames[i] = keyRefs.get(i).name;
+            }
+            return new Snapshot(names, weights, keys, keyNames, maxVersion);
+        }
+
+        List<Completion> topK(String prefix, int k) {
+            int from = lowerBound(prefix);
+            int to = lowerBound(prefix + Character.MAX_VALUE);
+            if (from >= to) {
+                return Collections.emptyList();
+            }
+
+            // Best-first search over disjoint sub-ranges, each represented by its heaviest position
+            PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Float.compare(weightAt(b[2]), weightAt(a[2])));
+            queue.add(new int[] { from, to, argMax(from, to) });
+
+            List<Completion> results = new ArrayList<>(k);
+            Set<Integer> seenNames = new HashSet<>();
+            while (!queue.isEmpty() && results.size() < k) {
+                int[] range = queue.poll();
+                int position = range[2];
+                int name = keyNames[position];
+                if (seenNames.add(name)) {
+                    results.add(new Completion(names[name], weights[name]));
+                }
+                if (range[0] < position) {
+                    queue.add(new int[] { range[0], position, argMax(range[0], position) });
+                }
+                if (position + 1 < range[1]) {
+                    queue.add(new int[] { position + 1, range[1], argMax(position + 1, range[1]) });
+                }
+            }
+            return results;
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int argMax(int from, int to) {
+            int best = -1;
+            for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1) {
+                    best = heavier(best, tree[lo++]);
+                }
+                if ((hi & 1) == 1) {
+                    best = heavier(best, tree[--hi]);
+                }
+            }
+            return best;
+        }
+
+        private int heavier(int a, int b) {
+            if (a < 0) return b;
+            if (b < 0) return a;
+            return weightAt(b) > weightAt(a) ? b : a;
+        }
+
+        private float weightAt(int position) {
+            return weights[keyNames[position]];
+        }
+
+        private static final class KeyRef {
+            final String key;
+            final int name;
+
+            KeyRef(String key, int name) {
+                this.key = key;
+                this.name = name;
+            }
+        }
+    }
+}
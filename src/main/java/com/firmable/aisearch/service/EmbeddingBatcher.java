@@ -0,0 +1,199 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Micro-batches concurrent embedding requests into single calls to the embedding service's batch endpoint.
+ *
+ * Callers enqueue a text and get a future. A dispatcher thread collects up to {@code embedding.batch.max-size}
+ * texts, waiting at most {@code embedding.batch.max-wait-ms} after the first one arrives, sends them as
+ * {@code {"texts": [...]}} and completes each caller's future from the matching entry of {@code {"embeddings": [[...], ...]}}.
+ */
+@Service
+public class EmbeddingBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingBatcher.class);
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("embeddingExecutor")
+    private ExecutorService embeddingExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${embedding.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${embedding.batch.url:http://localhost:8085/embed_batch}")
+    private String batchUrl;
+
+    @Value("${embedding.batch.max-size:32}")
+    private int maxBatchSize;
+
+    @Value("${embedding.batch.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${embedding.batch.queue-capacity:4096}")
+    private int queueCapacity;
+
+    private BlockingQueue<PendingEmbedding> queue;
+    private Thread dispatcher;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        dispatcher = new Thread(this::dispatchLoop, "embedding-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a text for the next batch. The future fails if the queue is full or the batch call fails.
+     */
+    public CompletableFuture<float[]> submit(String text) {
+        PendingEmbedding pending = new PendingEmbedding(text);
+        if (!queue.offer(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Embedding batch queue is full"));
+        }
+        return pending.future;
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+                batch.add(queue.take());
+
+                // Fill the batch until it is full or the window opened by the first request closes
+                long windowEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = windowEnd - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingEmbedding next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void dispatch(List<PendingEmbedding> batch) {
+        try {
+            embeddingExecutor.execute(() -> sendBatch(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    private void sendBatch(List<PendingEmbedding> batch) {
+        // Identical texts within a window are sent once
+        Map<String, List<PendingEmbedding>> byText = new LinkedHashMap<>();
+        for (PendingEmbedding pending : batch) {
+            byText.computeIfAbsent(pending.text, k -> new ArrayList<>()).add(pending);
+        }
+        List<String> texts = new ArrayList<>(byText.keySet());
+        DistributionSummary.builder("embedding.batch.size")
+                .description("Distinct texts per embedding batch call")
+                .register(meterRegistry)
+                .record(texts.size());
+
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            // Serialized up front so the request carries a Content-Length instead of a chunked body
+            ObjectMapper mapper = new ObjectMapper();
+            String body = mapper.writeValueAsString(Collections.singletonMap("texts", texts));
+            HttpEntity<String> request = new HttpEntity<>(body, headers);
+
+            ResponseEntity<String> response = restTemplate.exchange(batchUrl, HttpMethod.POST, request, String.class);
+            JsonNode embeddings = mapper.readTree(response.getBody()).path("embeddings");
+            if (embeddings.size() != texts.size()) {
+                throw new IllegalStateException("Embedding batch returned " + embeddings.size() + " embeddings for " + texts.size() + " texts");
+            }
+
+            for (int i = 0; i < texts.size(); i++) {
+                JsonNode embeddingNode = embeddings.get(i);
+                float[] embedding = new float[embeddingNode.size()];
+                for (int j = 0; j < embedding.length; j++) {
+                    embedding[j] = (float) embeddingNode.get(j).asDouble();
+                }
+                for (PendingEmbedding pending : byText.get(texts.get(i))) {
+                    if (embedding.length == 0) {
+                        pending.future.completeExceptionally(new IllegalStateException("Embedding service returned an empty embedding"));
+                    } else {
+                        pending.future.complete(embedding);
+                    }
+                }
+            }
+            outcome = "success";
+        } catch (Exception e) {
+            log.warn("Embedding batch of {} failed: {}", texts.size(), e.getMessage());
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        } finally {
+            Timer.builder("embedding.requests")
+                    .description("Calls to the embedding service")
+                    .tag("mode", "batch")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class PendingEmbedding {
+        final String text;
+        final CompletableFuture<float[]> future = new CompletableFuture<>();
+
+        PendingEmbedding(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.solr.SolrClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory copy of one company embedding field ({@code search.rerank.vector-field}) for re-ranking lexical
+ * results by semantic similarity without fetching vectors from Solr.
+ *
+ * Vectors are loaded from a cursorMark export of the core, normalized and scalar-quantized to int8 with one
+ * scale per vector (its largest component maps to 127), and stored back to back in direct buffers: a
+ * 384-dim vector takes 388 bytes instead of the 1552 of a {@code float[]}. Similarities are int8 dot products
+ * times both scales, computed with the JDK Vector API when the {@code jdk.incubator.vector} module is
+ * present and a scalar loop otherwise. Quantized cosines are within about 0.002 of the float ones.
+ *
+ * The store is reloaded on a schedule, not on every index change; companies added since the last load
+ * keep their lexical position after the re-ranked ones. The old snapshot serves searches until the new one
+ * is loaded, so a reload needs direct memory ({@code -XX:MaxDirectMemorySize}) for two copies.
+ */
+@Service
+public class EmbeddingStore {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingStore.class);
+
+    @Autowired
+    private SolrClient solrClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${search.rerank.enabled:false}")
+    private boolean enabled;
+
+    @Value("${search.rerank.vector-field:name}")
+    private String fieldName;
+
+    @Value("${search.rerank.batch-size:1000}")
+    private int batchSize;
+
+    private final Int8DotProduct kernel = kernel();
+
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "embedding-store-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private volatile Snapshot snapshot;
+    private volatile long snapshotVersion;
+    private volatile String lastLoad;
+    private volatile long loadTimeMs;
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            log.info("Embedding store scoring with the {} kernel", kernel.getName());
+            triggerReload("startup");
+        }
+    }
+
+    @Scheduled(cron = "${search.rerank.reload-cron:0 30 4 * * *}")
+    public void scheduledReload() {
+        if (enabled) {
+            triggerReload("schedule");
+        }
+    }
+
+    /**
+     * True once re-ranking is enabled and the first load has finished
+     */
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    /**
+     * Number of the loaded snapshot, counting from 1, or 0 while not ready; re-ranked results depend on it
+     */
+    public long getSnapshotVersion() {
+        return isReady() ? snapshotVersion : 0;
+    }
+
+    /**
+     * Start a background reload unless re-ranking is disabled or a load is already running
+     * @return true if a new load was started
+     */
+    public boolean triggerReload(String reason) {
+        if (!enabled || !loading.compareAndSet(false, true)) {
+            return false;
+        }
+        loadExecutor.submit(() -> {
+            try {
+                load(reason);
+            } finally {
+                loading.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Order documents by the similarity of their stored vector to the query embedding. Each re-ranked document
+     * gets {@code vectorScore} on Solr's cosine scale, {@code (1 + cos) / 2}, as its {@code score}, keeping the
+     * original in {@code lexicalScore}. Documents without a stored vector follow in their original order with
+     * their scores unchanged. Returns the documents as given if the store is not loaded or the embedding has
+     * another dimension.
+     */
+    public List<Map<String, Object>> rerank(float[] queryEmbedding, List<Map<String, Object>> documents) {
+        Snapshot current = snapshot;
+        if (current == null || queryEmbedding.length != current.dimension || documents.isEmpty()) {
+            return documents;
+        }
+
+        long start = System.nanoTime();
+        Quantized query = quantize(HnswGraph.normalize(queryEmbedding));
+        List<Map<String, Object>> scored = new ArrayList<>(documents.size());
+        List<Map<String, Object>> unscored = new ArrayList<>();
+        for (Map<String, Object> doc : documents) {
+            Object id = doc.get("id");
+            Integer ordinal = id != null ? current.ordinals.get(id.toString()) : null;
+            if (ordinal == null) {
+                unscored.add(doc);
+                continue;
+            }
+            float similarity = current.similarity(kernel, ordinal, query);
+            float vectorScore = HnswGraph.Similarity.COSINE.solrScore(Math.max(-1f, Math.min(1f, similarity)));
+            if (doc.containsKey("score")) {
+                doc.put("lexicalScore", doc.get("score"));
+            }
+            doc.put("vectorScore", vectorScore);
+            doc.put("score", vectorScore);
+            scored.add(doc);
+        }
+        // Stable, so equal similarities keep their lexical order
+        scored.sort((a, b) -> Float.compare((Float) b.get("vectorScore"), (Float) a.get("vectorScore")));
+        scored.addAll(unscored);
+
+        Timer.builder("embedding.store.rerank")
+                .description("Re-ranking lexical candidates against the quantized embedding store")
+                .tag("kernel", kernel.getName())
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return scored;
+    }
+
+    public Map<String, Object> getStatus() {
+        Snapshot current = snapshot;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("field", fieldName);
+        status.put("kernel", kernel.getName());
+        status.put("loading", loading.get());
+        status.put("documents", current != null ? current.count : 0);
+        status.put("dimension", current != null ? current.dimension : 0);
+        status.put("vectorBytes", current != null ? current.bytes() : 0);
+        // What the same vectors take as one float[] per document (16-byte array header)
+        status.put("floatVectorBytes", current != null ? (long) current.count * (16 + 4L * current.dimension) : 0);
+        // Not in either figure: the on-heap id to ordinal map, which both layouts need
+        status.put("idMapBytes", current != null ? current.idMapBytes() : 0);
+        status.put("lastLoad", lastLoad);
+        status.put("loadTimeMs", loadTimeMs);
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    /**
+     * The Vector API kernel if its module was added to the boot layer, the scalar loop otherwise
+     */
+    static Int8DotProduct kernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorApiInt8DotProduct();
+            } catch (LinkageError | IllegalStateException e) {
+                log.warn("Vector API unavailable, using the scalar kernel: {}", e.getMessage());
+            }
+        }
+        return new ScalarInt8DotProduct();
+    }
+
+    /**
+     * int8 components and the scale that maps them back to the normalized vector
+     */
+    static Quantized quantize(float[] normalized) {
+        float max = 0;
+        for (float component : normalized) {
+            max = Math.max(max, Math.abs(component));
+        }
+        byte[] values = new byte[normalized.length];
+        if (max == 0) {
+            return new Quantized(values, 0f);
+        }
+        float scale = max / 127f;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (byte) Math.round(normalized[i] / scale);
+        }
+        return new Quantized(values, scale);
+    }
+
+    private void load(String reason) {
+        long start = System.currentTimeMillis();
+        try {
+            Snapshot loaded = export();
+            snapshot = loaded;
+            snapshotVersion++;
+            loadTimeMs = System.currentTimeMillis() - start;
+            lastLoad = Instant.now().toString();
+            lastError = null;
+            log.info("Embedding store loaded ({}): {} x {} {} vectors, {} MB in {}ms", reason, loaded.count,
+                    loaded.dimension, field(), loaded.bytes() / (1024 * 1024), loadTimeMs);
+        } catch (Exception e) {
+            loadTimeMs = System.currentTimeMillis() - start;
+            lastError = e.getMessage();
+            log.warn("Embedding store load failed ({}): {}", reason, e.getMessage());
+        }
+    }
+
+    /**
+     * Walk the core with cursorMark, quantizing every document's vector into the next free slot
+     */
+    private Snapshot export() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String field = field();
+        String baseQuery = "/select?q=*:*&wt=json&sort=id+asc&rows=" + batchSize + "&fl=id," + field;
+
+        SnapshotBuilder builder = null;
+        String cursorMark = "*";
+        while (true) {
+            ResponseEntity<String> response = solrClient.get(baseQuery + "&cursorMark=" + URLEncoder.encode(cursorMark, StandardCharsets.UTF_8));
+            JsonNode root = mapper.readTree(response.getBody());
+
+            for (JsonNode doc : root.path("response").path("docs")) {
+                String id = doc.path("id").asText(null);
+                JsonNode values = doc.path(field);
+                if (id == null || !values.isArray() || values.size() == 0) {
+                    continue;
+                }
+                float[] vector = new float[values.size()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = (float) values.get(i).asDouble();
+                }
+                if (builder == null) {
+                    builder = new SnapshotBuilder(vector.length, root.path("response").path("numFound").asInt(0));
+                }
+                if (vector.length == builder.dimension) {
+                    builder.add(id, quantize(HnswGraph.normalize(vector)));
+                }
+            }
+
+            String nextCursorMark = root.path("nextCursorMark").asText(cursorMark);
+            if (nextCursorMark.equals(cursorMark)) {
+                break;
+            }
+            cursorMark = nextCursorMark;
+        }
+        if (builder == null) {
+            throw new IllegalStateException("No documents with " + field);
+        }
+        return builder.build();
+    }
+
+    private String field() {
+        Map<String, Double> fields = SemanticSearchService.parseVectorFields(fieldName);
+        if (fields.isEmpty()) {
+            throw new IllegalStateException("Unknown vector field " + fieldName);
+        }
+        return fields.keySet().iterator().next();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+
+    static final class Quantized {
+        final byte[] values;
+        final float scale;
+
+        Quantized(byte[] values, float scale) {
+            this.values = values;
+            this.scale = scale;
+        }
+    }
+
+    /**
+     * Loaded vectors: chunks of whole vectors, each under 2GB as buffers are int-indexed
+     */
+    static final class Snapshot {
+        final int dimension;
+        final int count;
+        final int vectorsPerChunk;
+        final ByteBuffer[] chunks;
+        final float[] scales;
+        final Map<String, Integer> ordinals;
+        final long idChars;
+
+        Snapshot(int dimension, int count, int vectorsPerChunk, ByteBuffer[] chunks, float[] scales,
+                 Map<String, Integer> ordinals, long idChars) {
+            this.dimension = dimension;
+            this.count = count;
+            this.vectorsPerChunk = vectorsPerChunk;
+            this.chunks = chunks;
+            this.scales = scales;
+            this.ordinals = ordinals;
+            this.idChars = idChars;
+        }
+
+        float similarity(Int8DotProduct kernel, int ordinal, Quantized query) {
+            int offset = (ordinal % vectorsPerChunk) * dimension;
+            return kernel.dot(chunks[ordinal / vectorsPerChunk], offset, query.values) * scales[ordinal] * query.scale;
+        }
+
+        long bytes() {
+            return (long) count * dimension + 4L * count;
+        }
+
+        /**
+         * Estimated heap of the ordinals map with compressed oops: per entry a 32-byte node, a 24-byte String,
+         * a 16-byte byte[] header, a 16-byte Integer and about 8 bytes of table, plus the Latin-1 id bytes
+         */
+        long idMapBytes() {
+            return 96L * count + idChars;
+        }
+    }
+
+    /**
+     * Appends quantized vectors, sizing chunks from the export's numFound and adding more if the core grows
+     */
+    static final class SnapshotBuilder {
+        private final int dimension;
+        private final int vectorsPerChunk;
+        private final int expected;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private final Map<String, Integer> ordinals;
+        private float[] scales;
+        private int count;
+        private long idChars;
+
+        SnapshotBuilder(int dimension, int expected) {
+            this.dimension = dimension;
+            this.vectorsPerChunk = Math.max(1, Integer.MAX_VALUE / dimension);
+            this.expected = Math.max(expected, 1);
+            this.ordinals = new HashMap<>(this.expected * 4 / 3 + 1);
+            this.scales = new float[this.expected];
+        }
+
+        void add(String id, Quantized vector) {
+            if (ordinals.containsKey(id)) {
+                return;
+            }
+            int slot = count % vectorsPerChunk;
+            if (slot == 0) {
+                // Sized for the rest of the expected documents, or for another 1/8 once they are all in
+                int remaining = count < expected ? expected - count : Math.max(expected / 8, 1024);
+                chunks.add(ByteBuffer.allocateDirect(Math.min(vectorsPerChunk, remaining) * dimension));
+            }
+            ByteBuffer chunk = chunks.get(chunks.size() - 1);
+            if ((slot + 1) * dimension > chunk.capacity()) {
+                // The core grew during the export
+                ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min((long) vectorsPerChunk * dimension,
+                        (long) chunk.capacity() + (long) Math.max(expected / 8, 1024) * dimension));
+                chunk.position(0).limit(slot * dimension);
+                grown.put(chunk);
+                chunks.set(chunks.size() - 1, grown);
+                chunk = grown;
+            }
+            chunk.put(slot * dimension, vector.values);
+            if (count == scales.length) {
+                scales = Arrays.copyOf(scales, scales.length + Math.max(scales.length / 8, 1024));
+            }
+            scales[count] = vector.scale;
+            idChars += id.length();
+            ordinals.put(id, count++);
+        }
+
+        Snapshot build() {
+            return new Snapshot(dimension, count, vectorsPerChunk, chunks.toArray(new ByteBuffer[0]),
+                    Arrays.copyOf(scales, count), ordinals, idChars);
+        }
+    }
+}
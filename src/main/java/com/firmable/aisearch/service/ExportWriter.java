@@ -0,0 +1,128 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes exported documents to the response as NDJSON (one JSON object per line) or CSV (a header row of
+ * the exported fields, then one row per document). Output is buffered and pushed to the client on each flush.
+ */
+public class ExportWriter implements SearchService.DocumentSink {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        /**
+         * The format for a request parameter, or null if it is not supported
+         */
+        public static Format parse(String value) {
+            if (value == null) {
+                return NDJSON;
+            }
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "ndjson", "jsonl", "json" -> NDJSON;
+                case "csv" -> CSV;
+                default -> null;
+            };
+        }
+    }
+
+    // Multi-valued fields are joined into one CSV cell
+    private static final String CSV_VALUE_SEPARATOR = "|";
+
+    private final Format format;
+    private final List<String> fields;
+    private final Writer out;
+    private final ObjectWriter jsonWriter;
+
+    public ExportWriter(Format format, List<String> fields, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.fields = fields;
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // Flushing after every document would send one chunk per line
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (format == Format.CSV) {
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0) this.out.write(',');
+                writeCsvCell(fields.get(i));
+            }
+            this.out.write("\r\n");
+        }
+    }
+
+    @Override
+    public void accept(Map<String, Object> doc) throws IOException {
+        if (format == Format.NDJSON) {
+            out.write(jsonWriter.writeValueAsString(doc));
+            out.write('\n');
+            return;
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) out.write(',');
+            writeCsvCell(csvValue(doc.get(fields.get(i))));
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Collection<?> values) {
+            StringBuilder joined = new StringBuilder();
+            for (Object item : values) {
+                if (joined.length() > 0) joined.append(CSV_VALUE_SEPARATOR);
+                joined.append(item);
+            }
+            return joined.toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * RFC 4180: quote cells containing separators, quotes or line breaks, doubling embedded quotes
+     */
+    private void writeCsvCell(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,182 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.solr.IndexVersionChangedEvent;
+import com.firmable.aisearch.solr.SolrClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory copy of every value (with document counts) of the facet fields used by autosuggest,
+ * so industry and location suggestions can be matched locally instead of faceting on each keystroke.
+ * Refreshed at startup, when the index version changes and on a fixed schedule, on its own background thread.
+ */
+@Service
+public class FacetDictionaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetDictionaryService.class);
+
+    public static final String INDUSTRY_FIELD = "industry";
+    public static final String LOCATION_FIELD = "locality";
+
+    @Autowired
+    private SolrClient solrClient;
+
+    @Value("${autosuggest.facets.enabled:true}")
+    private boolean enabled;
+
+    private volatile Map<String, FacetDictionary> dictionaries = Collections.emptyMap();
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "facet-dictionary-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(false);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        submitRefresh();
+    }
+
+    @EventListener
+    public void onIndexVersionChanged(IndexVersionChangedEvent event) {
+        submitRefresh();
+    }
+
+    @Scheduled(initialDelayString = "${autosuggest.facets.refresh-ms:600000}",
+               fixedDelayString = "${autosuggest.facets.refresh-ms:600000}")
+    public void scheduledRefresh() {
+        submitRefresh();
+    }
+
+    public boolean isLoaded(String field) {
+        return dictionaries.containsKey(field);
+    }
+
+    /**
+     * Values of the field containing the (lower-cased) query, most popular first
+     */
+    public List<FacetValue> match(String field, String query) {
+        FacetDictionary dictionary = dictionaries.get(field);
+        if (dictionary == null) {
+            return Collections.emptyList();
+        }
+        return dictionary.match(query);
+    }
+
+    /**
+     * Refresh in the background, off the scheduler and event publisher threads. One refresh waits at most:
+     * a request while one is running queues the next, and requests while one is queued share it.
+     */
+    private void submitRefresh() {
+        if (!enabled || !refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.submit(() -> {
+            refreshQueued.set(false);
+            refreshQuietly();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Facet dictionary refresh failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void refresh() throws Exception {
+        long start = System.currentTimeMillis();
+        String solrQuery = "/select?q=*:*&rows=0&wt=json&facet=true&facet.limit=-1&facet.mincount=1&facet.sort=count" +
+                "&facet.field=" + URLEncoder.encode(INDUSTRY_FIELD, StandardCharsets.UTF_8) +
+                "&facet.field=" + URLEncoder.encode(LOCATION_FIELD, StandardCharsets.UTF_8);
+
+        ResponseEntity<String> response = solrClient.get(solrQuery);
+        JsonNode facetFields = new ObjectMapper().readTree(response.getBody()).path("facet_counts").path("facet_fields");
+
+        Map<String, FacetDictionary> loaded = new HashMap<>();
+        for (String field : Arrays.asList(INDUSTRY_FIELD, LOCATION_FIELD)) {
+            JsonNode values = facetFields.path(field);
+            List<FacetValue> entries = new ArrayList<>(values.size() / 2);
+            for (int i = 0; i < values.size() - 1; i += 2) {
+                entries.add(new FacetValue(values.get(i).asText(), values.get(i + 1).asInt()));
+            }
+            loaded.put(field, new FacetDictionary(entries));
+        }
+        dictionaries = loaded;
+
+        log.info("Facet dictionaries loaded: {} industries, {} locations in {}ms",
+                loaded.get(INDUSTRY_FIELD).size(), loaded.get(LOCATION_FIELD).size(), System.currentTimeMillis() - start);
+    }
+
+    public static class FacetValue {
+        private final String value;
+        private final int count;
+
+        public FacetValue(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() { return value; }
+        public int getCount() { return count; }
+    }
+
+    /**
+     * Facet values in count order, with lower-cased copies precomputed for matching
+     */
+    private static final class FacetDictionary {
+        private final FacetValue[] values;
+        private final String[] lowerValues;
+
+        FacetDictionary(List<FacetValue> entries) {
+            entries.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+            this.values = entries.toArray(new FacetValue[0]);
+            this.lowerValues = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                lowerValues[i] = values[i].getValue().toLowerCase();
+            }
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        List<FacetValue> match(String query) {
+            List<FacetValue> matches = new ArrayList<>();
+            for (int i = 0; i < values.length; i++) {
+                if (lowerValues[i].contains(query)) {
+                    matches.add(values[i]);
+                }
+            }
+            return matches;
+        }
+    }
+}
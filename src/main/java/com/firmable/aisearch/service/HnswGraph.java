@@ -0,0 +1,552 @@
+package com.firmable.aisearch.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only HNSW graph over one embedding field, memory-mapped from a file written by {@link HnswGraphBuilder}.
+ *
+ * Vectors, the level-0 adjacency lists, the per-node country_s and industry_s ordinals and the ids stay in the
+ * mapped file, so opening a graph only reads the header, the small upper levels and the dictionaries, and the
+ * page cache is shared between restarts. Filtered searches only return nodes the filter accepts; when the
+ * filter matches fewer than {@code exactThreshold} documents, or the graph walk visits more nodes than the
+ * filter is expected to match, the matching nodes are scanned exactly instead.
+ *
+ * File layout (little-endian, sections 64-byte aligned): header, vectors ({@code count x dimension} floats),
+ * country and industry ordinals ({@code count} ints each, -1 for none), level-0 neighbours ({@code count}
+ * slots of {@code maxConn0 + 1} ints: size then neighbours), upper levels, id offsets and UTF-8 id bytes,
+ * then the country and industry dictionaries.
+ */
+final class HnswGraph {
+
+    static final int MAGIC = 0x574E5348;
+    // 2: the industry dictionary holds industry_s values (1 held the industry text field)
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_BYTES = 128;
+    static final int ALIGNMENT = 64;
+
+    enum Similarity {
+        /** Solr cosine: (1 + cos) / 2; vectors are normalized when written, so cos is a dot product */
+        COSINE,
+        /** Solr dot_product: (1 + dot) / 2 */
+        DOT_PRODUCT,
+        /** Solr euclidean: 1 / (1 + squared distance) */
+        EUCLIDEAN;
+
+        static Similarity parse(String value) {
+            return valueOf(value.trim().toUpperCase());
+        }
+
+        /**
+         * Score on the Solr kNN scale for a raw similarity from {@link HnswGraph#similarity}
+         */
+        float solrScore(float raw) {
+            return this == EUCLIDEAN ? 1f / (1f - raw) : (1f + raw) / 2f;
+        }
+    }
+
+    private final Path path;
+    private final int dimension;
+    private final int count;
+    private final int maxConn0;
+    private final int entryPoint;
+    private final int maxLevel;
+    private final Similarity similarity;
+    private final long builtAt;
+
+    private final FloatBuffer[] vectors;
+    private final int vectorsPerChunk;
+    private final IntBuffer countries;
+    private final IntBuffer industries;
+    private final IntBuffer[] level0;
+    private final int slotsPerChunk;
+    private final Map<Integer, int[][]> upperLevels;
+    private final IntBuffer idOffsets;
+    private final ByteBuffer idBytes;
+    private final List<String> countryNames;
+    private final List<String> industryNames;
+    private final int[] countryCounts;
+    private final int[] industryCounts;
+
+    private static final ThreadLocal<Visited> VISITED = ThreadLocal.withInitial(Visited::new);
+
+    private HnswGraph(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+            throw new IOException(path + " is not a vector index file of version " + FORMAT_VERSION);
+        }
+        dimension = header.getInt();
+        count = header.getInt();
+        header.getInt(); // maxConn, only needed when building
+        maxConn0 = header.getInt();
+        entryPoint = header.getInt();
+        maxLevel = header.getInt();
+        similarity = Similarity.values()[header.getInt()];
+        header.getInt();
+        builtAt = header.getLong();
+        long vectorsOffset = header.getLong();
+        long countriesOffset = header.getLong();
+        long industriesOffset = header.getLong();
+        long level0Offset = header.getLong();
+        long upperOffset = header.getLong();
+        long idOffsetsOffset = header.getLong();
+        long idBytesOffset = header.getLong();
+        long dictionaryOffset = header.getLong();
+
+        vectorsPerChunk = recordsPerChunk(dimension);
+        vectors = new FloatBuffer[chunks(count, vectorsPerChunk)];
+        for (int i = 0; i < vectors.length; i++) {
+            int records = Math.min(vectorsPerChunk, count - i * vectorsPerChunk);
+            vectors[i] = map(channel, vectorsOffset + (long) i * vectorsPerChunk * dimension * 4, (long) records * dimension * 4).asFloatBuffer();
+        }
+        slotsPerChunk = recordsPerChunk(maxConn0 + 1);
+        level0 = new IntBuffer[chunks(count, slotsPerChunk)];
+        for (int i = 0; i < level0.length; i++) {
+            int records = Math.min(slotsPerChunk, count - i * slotsPerChunk);
+            level0[i] = map(channel, level0Offset + (long) i * slotsPerChunk * (maxConn0 + 1) * 4, (long) records * (maxConn0 + 1) * 4).asIntBuffer();
+        }
+        countries = map(channel, countriesOffset, (long) count * 4).asIntBuffer();
+        industries = map(channel, industriesOffset, (long) count * 4).asIntBuffer();
+        idOffsets = map(channel, idOffsetsOffset, (long) (count + 1) * 4).asIntBuffer();
+        idBytes = map(channel, idBytesOffset, idOffsets.get(count));
+
+        ByteBuffer upper = map(channel, upperOffset, idOffsetsOffset - upperOffset);
+        int upperNodes = upper.getInt();
+        upperLevels = new HashMap<>(upperNodes * 2);
+        for (int i = 0; i < upperNodes; i++) {
+            int node = upper.getInt();
+            int[][] levels = new int[upper.getInt() + 1][];
+            for (int level = 1; level < levels.length; level++) {
+                levels[level] = new int[upper.getInt()];
+                for (int j = 0; j < levels[level].length; j++) {
+                    levels[level][j] = upper.getInt();
+                }
+            }
+            upperLevels.put(node, levels);
+        }
+
+        ByteBuffer dictionaries = map(channel, dictionaryOffset, channel.size() - dictionaryOffset);
+        countryNames = readStrings(dictionaries);
+        industryNames = readStrings(dictionaries);
+        countryCounts = ordinalCounts(countries, countryNames.size());
+        industryCounts = ordinalCounts(industries, industryNames.size());
+    }
+
+    /**
+     * Map the graph file; the mapping stays valid after the file is replaced or deleted
+     */
+    static HnswGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new HnswGraph(path, channel);
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int getDimension() {
+        return dimension;
+    }
+
+    long getBuiltAt() {
+        return builtAt;
+    }
+
+    List<String> getCountries() {
+        return countryNames;
+    }
+
+    List<String> getIndustries() {
+        return industryNames;
+    }
+
+    /**
+     * The {@code topK} nearest nodes to {@code query} that the filter accepts, most similar first, with Solr
+     * kNN scores. A null filter accepts every node.
+     */
+    List<Neighbor> search(float[] query, int topK, int ef, Filter filter, int exactThreshold) {
+        if (count == 0 || topK <= 0 || query.length != dimension) {
+            return Collections.emptyList();
+        }
+        float[] q = similarity == Similarity.COSINE ? normalize(query) : query;
+        long matching = filter != null ? filter.estimateMatches(this) : count;
+        if (matching == 0) {
+            return Collections.emptyList();
+        }
+        if (filter != null && matching <= exactThreshold) {
+            return neighbours(exactSearch(q, topK, filter), topK);
+        }
+
+        int entry = entryPoint;
+        float entryScore = similarity(q, entry);
+        for (int level = maxLevel; level > 0; level--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int neighbour : upperLevels.get(entry)[level]) {
+                    float score = similarity(q, neighbour);
+                    if (score > entryScore) {
+                        entry = neighbour;
+                        entryScore = score;
+                        improved = true;
+                    }
+                }
+            }
+        }
+
+        // Past the point where the walk has visited more nodes than the filter matches, a scan is cheaper
+        ScoreHeap results = searchLevel0(q, entry, entryScore, Math.max(ef, topK), filter,
+                filter != null ? Math.max(matching, exactThreshold) : Long.MAX_VALUE);
+        return neighbours(results != null ? results : exactSearch(q, topK, filter), topK);
+    }
+
+    /**
+     * Best-first search of level 0 keeping the {@code ef} best accepted nodes, or null once more than
+     * {@code visitLimit} nodes have been visited
+     */
+    private ScoreHeap searchLevel0(float[] q, int entry, float entryScore, int ef, Filter filter, long visitLimit) {
+        Visited visited = VISITED.get();
+        visited.reset(count);
+        ScoreHeap candidates = new ScoreHeap(ef, true);
+        ScoreHeap results = new ScoreHeap(ef, false);
+        visited.add(entry);
+        candidates.push(entry, entryScore);
+        if (filter == null || filter.accepts(this, entry)) {
+            results.push(entry, entryScore);
+        }
+
+        long visits = 1;
+        while (candidates.size() > 0) {
+            float candidateScore = candidates.topScore();
+            if (results.size() >= ef && candidateScore < results.topScore()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            IntBuffer slots = level0[candidate / slotsPerChunk];
+            int base = (candidate % slotsPerChunk) * (maxConn0 + 1);
+            int degree = slots.get(base);
+            for (int i = 1; i <= degree; i++) {
+                int neighbour = slots.get(base + i);
+                if (!visited.add(neighbour)) {
+                    continue;
+                }
+                if (++visits > visitLimit) {
+                    return null;
+                }
+                float score = similarity(q, neighbour);
+                if (results.size() < ef || score > results.topScore()) {
+                    candidates.push(neighbour, score);
+                    if (filter == null || filter.accepts(this, neighbour)) {
+                        results.push(neighbour, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private ScoreHeap exactSearch(float[] q, int topK, Filter filter) {
+        ScoreHeap results = new ScoreHeap(topK, false);
+        for (int node = 0; node < count; node++) {
+            if (filter != null && !filter.accepts(this, node)) {
+                continue;
+            }
+            float score = similarity(q, node);
+            if (results.size() < topK) {
+                results.push(node, score);
+            } else if (score > results.topScore()) {
+                results.pop();
+                results.push(node, score);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Best {@code topK} of a min-heap of results, most similar first
+     */
+    private List<Neighbor> neighbours(ScoreHeap results, int topK) {
+        while (results.size() > topK) {
+            results.pop();
+        }
+        Neighbor[] ordered = new Neighbor[results.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            float score = results.topScore();
+            int node = results.pop();
+            ordered[i] = new Neighbor(id(node), similarity.solrScore(score));
+        }
+        return Arrays.asList(ordered);
+    }
+
+    /**
+     * Raw similarity, higher is closer: the dot product, or the negated squared distance for euclidean
+     */
+    float similarity(float[] q, int node) {
+        FloatBuffer chunk = vectors[node / vectorsPerChunk];
+        int base = (node % vectorsPerChunk) * dimension;
+        float sum = 0;
+        if (similarity == Similarity.EUCLIDEAN) {
+            for (int i = 0; i < dimension; i++) {
+                float diff = q[i] - chunk.get(base + i);
+                sum += diff * diff;
+            }
+            return -sum;
+        }
+        for (int i = 0; i < dimension; i++) {
+            sum += q[i] * chunk.get(base + i);
+        }
+        return sum;
+    }
+
+    String id(int node) {
+        int from = idOffsets.get(node);
+        byte[] bytes = new byte[idOffsets.get(node + 1) - from];
+        idBytes.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float component : vector) {
+            norm += component * component;
+        }
+        if (norm == 0) {
+            return vector;
+        }
+        float[] normalized = new float[vector.length];
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    /**
+     * Vectors or adjacency slots per mapping; a single mapping is limited to 2GB
+     */
+    static int recordsPerChunk(int recordInts) {
+        return Math.max(1, Integer.MAX_VALUE / (recordInts * 4));
+    }
+
+    private static int chunks(int records, int perChunk) {
+        return Math.max(1, (records + perChunk - 1) / perChunk);
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(strings);
+    }
+
+    private static int[] ordinalCounts(IntBuffer ordinals, int size) {
+        int[] counts = new int[size];
+        for (int i = 0; i < ordinals.limit(); i++) {
+            int ordinal = ordinals.get(i);
+            if (ordinal >= 0) {
+                counts[ordinal]++;
+            }
+        }
+        return counts;
+    }
+
+    static final class Neighbor {
+        private final String id;
+        private final float score;
+
+        Neighbor(String id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        String getId() { return id; }
+        float getScore() { return score; }
+    }
+
+    /**
+     * Accepted country and industry ordinals; a null array accepts any value, including none
+     */
+    static final class Filter {
+        private final boolean[] countries;
+        private final boolean[] industries;
+
+        Filter(boolean[] countries, boolean[] industries) {
+            this.countries = countries;
+            this.industries = industries;
+        }
+
+        boolean accepts(HnswGraph graph, int node) {
+            return accepts(countries, graph.countries.get(node)) && accepts(industries, graph.industries.get(node));
+        }
+
+        /**
+         * Matching documents assuming country and industry are independent
+         */
+        long estimateMatches(HnswGraph graph) {
+            double fraction = fraction(countries, graph.countryCounts, graph.count)
+                    * fraction(industries, graph.industryCounts, graph.count);
+            return (long) Math.ceil(fraction * graph.count);
+        }
+
+        private static boolean accepts(boolean[] accepted, int ordinal) {
+            return accepted == null || (ordinal >= 0 && accepted[ordinal]);
+        }
+
+        private static double fraction(boolean[] accepted, int[] counts, int total) {
+            if (accepted == null || total == 0) {
+                return 1.0;
+            }
+            long matching = 0;
+            for (int i = 0; i < accepted.length; i++) {
+                if (accepted[i]) {
+                    matching += counts[i];
+                }
+            }
+            return (double) matching / total;
+        }
+    }
+
+    /**
+     * Binary heap of nodes by score, the highest on top if {@code max}, otherwise the lowest
+     */
+    static final class ScoreHeap {
+        private final boolean max;
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        ScoreHeap(int capacity, boolean max) {
+            this.max = max;
+            this.nodes = new int[Math.max(2, capacity + 1)];
+            this.scores = new float[nodes.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        int topNode() {
+            return nodes[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(score, scores[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!above(scores[child], lastScore)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            scores[i] = lastScore;
+            return top;
+        }
+
+        private boolean above(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+
+    /**
+     * Per-thread visited set: a bitset cleared through the list of nodes it touched
+     */
+    static final class Visited {
+        private long[] bits = new long[0];
+        private int[] touched = new int[256];
+        private int touchedCount;
+
+        void reset(int nodes) {
+            if (bits.length < (nodes + 63) >>> 6) {
+                bits = new long[(nodes + 63) >>> 6];
+                touchedCount = 0;
+                return;
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                bits[touched[i] >>> 6] = 0;
+            }
+            touchedCount = 0;
+        }
+
+        /**
+         * True if the node had not been visited yet
+         */
+        boolean add(int node) {
+            int word = node >>> 6;
+            long mask = 1L << node;
+            if ((bits[word] & mask) != 0) {
+                return false;
+            }
+            bits[word] |= mask;
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = node;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package com.firmable.aisearch.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds an {@link HnswGraph} file for one embedding field. Vectors are spilled to a temporary file as they are
+ * added and memory-mapped for the build, so the heap only holds the adjacency lists, ids and ordinals.
+ *
+ * Insertion follows the HNSW paper: each node gets a random level with probability {@code 1/M} per level,
+ * is linked on every level up to its own to neighbours chosen with the diversity heuristic from an
+ * {@code efConstruction} beam search, and a neighbour that runs out of slots drops its least similar link.
+ */
+final class HnswGraphBuilder implements AutoCloseable {
+
+    private final int dimension;
+    private final HnswGraph.Similarity similarity;
+    private final int maxConn;
+    private final int maxConn0;
+    private final int efConstruction;
+    private final Random random;
+
+    private final Path vectorFile;
+    private final FileChannel vectorChannel;
+    private final ByteBuffer staging = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+    private final HnswGraph.Visited visited = new HnswGraph.Visited();
+
+    private final List<String> ids = new ArrayList<>();
+    private final Dictionary countries = new Dictionary();
+    private final Dictionary industries = new Dictionary();
+    private int[] countryOrdinals = new int[1024];
+    private int[] industryOrdinals = new int[1024];
+
+    // Set while building
+    private FloatBuffer[] vectors;
+    private int vectorsPerChunk;
+    private int[] level0;
+    private int[][][] upperLevels;
+    private int entryPoint = -1;
+    private int maxLevel;
+
+    HnswGraphBuilder(int dimension, HnswGraph.Similarity similarity, int maxConn, int efConstruction, Path tempDir)
+            throws IOException {
+        this.dimension = dimension;
+        this.similarity = similarity;
+        this.maxConn = maxConn;
+        this.maxConn0 = 2 * maxConn;
+        this.efConstruction = efConstruction;
+        this.random = new Random(42);
+        this.vectorFile = Files.createTempFile(tempDir, "vectors", ".tmp");
+        this.vectorChannel = FileChannel.open(vectorFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Add a document; country and industry may be null
+     */
+    void add(String id, float[] vector, String country, String industry) throws IOException {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Vector for " + id + " has " + vector.length + " dimensions, expected " + dimension);
+        }
+        float[] stored = similarity == HnswGraph.Similarity.COSINE ? HnswGraph.normalize(vector) : vector;
+        for (float component : stored) {
+            if (staging.remaining() < 4) {
+                flush();
+            }
+            staging.putFloat(component);
+        }
+
+        int node = ids.size();
+        ids.add(id);
+        if (node == countryOrdinals.length) {
+            countryOrdinals = Arrays.copyOf(countryOrdinals, node * 2);
+            industryOrdinals = Arrays.copyOf(industryOrdinals, node * 2);
+        }
+        countryOrdinals[node] = countries.ordinal(country);
+        industryOrdinals[node] = industries.ordinal(industry);
+    }
+
+    /**
+     * Build the graph and write it to {@code target}, replacing any existing file atomically
+     */
+    void write(Path target) throws IOException {
+        flush();
+        int count = ids.size();
+        vectorsPerChunk = HnswGraph.recordsPerChunk(dimension);
+        vectors = new FloatBuffer[Math.max(1, (count + vectorsPerChunk - 1) / vectorsPerChunk)];
+        for (int i = 0; i < vectors.length; i++) {
+            int records = Math.max(0, Math.min(vectorsPerChunk, count - i * vectorsPerChunk));
+            vectors[i] = vectorChannel.map(FileChannel.MapMode.READ_ONLY, (long) i * vectorsPerChunk * dimension * 4,
+                    (long) records * dimension * 4).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        }
+
+        level0 = new int[count * (maxConn0 + 1)];
+        upperLevels = new int[count][][];
+        double levelScale = 1.0 / Math.log(maxConn);
+        float[] vector = new float[dimension];
+        for (int node = 0; node < count; node++) {
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelScale);
+            vectorAt(node, vector);
+            insert(node, level, vector);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFile(out, count);
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        vectorChannel.close();
+        Files.deleteIfExists(vectorFile);
+    }
+
+    private void insert(int node, int level, float[] vector) {
+        if (level > 0) {
+            upperLevels[node] = new int[level + 1][];
+            for (int l = 1; l <= level; l++) {
+                upperLevels[node][l] = new int[0];
+            }
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int entry = entryPoint;
+        float entryScore = similarity(vector, entry);
+        for (int l = maxLevel; l > level; l--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int neighbour : neighbours(entry, l)) {
+                    float score = similarity(vector, neighbour);
+                    if (score > entryScore) {
+                        entry = neighbour;
+                        entryScore = score;
+                        improved = true;
+                    }
+                }
+            }
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            HnswGraph.ScoreHeap candidates = searchLevel(vector, entry, entryScore, l);
+            int[] nodes = new int[candidates.size()];
+            float[] scores = new float[candidates.size()];
+            for (int i = nodes.length - 1; i >= 0; i--) {
+                scores[i] = candidates.topScore();
+                nodes[i] = candidates.pop();
+            }
+            int[] selected = selectDiverse(nodes, scores, l == 0 ? maxConn0 : maxConn);
+            setNeighbours(node, l, selected);
+            for (int neighbour : selected) {
+                link(neighbour, node, l);
+            }
+            entry = nodes[0];
+            entryScore = scores[0];
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    /**
+     * The {@code efConstruction} nearest nodes on one level as a min-heap
+     */
+    private HnswGraph.ScoreHeap searchLevel(float[] vector, int entry, float entryScore, int level) {
+        visited.reset(ids.size());
+        HnswGraph.ScoreHeap candidates = new HnswGraph.ScoreHeap(efConstruction, true);
+        HnswGraph.ScoreHeap results = new HnswGraph.ScoreHeap(efConstruction, false);
+        visited.add(entry);
+        candidates.push(entry, entryScore);
+        results.push(entry, entryScore);
+        while (candidates.size() > 0) {
+            if (results.size() >= efConstruction && candidates.topScore() < results.topScore()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            int[] upper = level > 0 ? upperLevels[candidate][level] : null;
+            int base = candidate * (maxConn0 + 1);
+            int degree = upper != null ? upper.length : level0[base];
+            for (int i = 0; i < degree; i++) {
+                int neighbour = upper != null ? upper[i] : level0[base + 1 + i];
+                if (!visited.add(neighbour)) {
+                    continue;
+                }
+                float score = similarity(vector, neighbour);
+                if (results.size() < efConstruction || score > results.topScore()) {
+                    candidates.push(neighbour, score);
+                    results.push(neighbour, score);
+                    if (results.size() > efConstruction) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Up to {@code max} of the candidates (most similar first), skipping any that is closer to an already
+     * selected neighbour than to the new node, so links spread out rather than cluster
+     */
+    private int[] selectDiverse(int[] nodes, float[] scores, int max) {
+        int[] selected = new int[Math.min(max, nodes.length)];
+        int size = 0;
+        float[] vector = new float[dimension];
+        for (int i = 0; i < nodes.length && size < selected.length; i++) {
+            vectorAt(nodes[i], vector);
+            boolean diverse = true;
+            for (int j = 0; j < size; j++) {
+                if (similarity(vector, selected[j]) > scores[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[size++] = nodes[i];
+            }
+        }
+        return Arrays.copyOf(selected, size);
+    }
+
+    /**
+     * Add {@code node} to the neighbours of {@code target}; when full, it replaces the least similar
+     * neighbour if it is closer than that one
+     */
+    private void link(int target, int node, int level) {
+        int[] current = neighbours(target, level);
+        int max = level == 0 ? maxConn0 : maxConn;
+        if (level == 0 && current.length < max) {
+            int base = target * (maxConn0 + 1);
+            level0[base + 1 + level0[base]++] = node;
+            return;
+        }
+        if (current.length < max) {
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = node;
+            setNeighbours(target, level, extended);
+            return;
+        }
+        float[] vector = new float[dimension];
+        vectorAt(target, vector);
+        int weakest = -1;
+        float weakestScore = similarity(vector, node);
+        for (int i = 0; i < current.length; i++) {
+            float score = similarity(vector, current[i]);
+            if (score < weakestScore) {
+                weakest = i;
+                weakestScore = score;
+            }
+        }
+        if (weakest >= 0) {
+            int[] replaced = current.clone();
+            replaced[weakest] = node;
+            setNeighbours(target, level, replaced);
+        }
+    }
+
+    private int[] neighbours(int node, int level) {
+        if (level > 0) {
+            return upperLevels[node][level];
+        }
+        int base = node * (maxConn0 + 1);
+        return Arrays.copyOfRange(level0, base + 1, base + 1 + level0[base]);
+    }
+
+    private void setNeighbours(int node, int level, int[] neighbours) {
+        if (level > 0) {
+            upperLevels[node][level] = neighbours;
+            return;
+        }
+        int base = node * (maxConn0 + 1);
+        level0[base] = neighbours.length;
+        System.arraycopy(neighbours, 0, level0, base + 1, neighbours.length);
+    }
+
+    private float similarity(float[] vector, int node) {
+        FloatBuffer chunk = vectors[node / vectorsPerChunk];
+        int base = (node % vectorsPerChunk) * dimension;
+        float sum = 0;
+        if (similarity == HnswGraph.Similarity.EUCLIDEAN) {
+            for (int i = 0; i < dimension; i++) {
+                float diff = vector[i] - chunk.get(base + i);
+                sum += diff * diff;
+            }
+            return -sum;
+        }
+        for (int i = 0; i < dimension; i++) {
+            sum += vector[i] * chunk.get(base + i);
+        }
+        return sum;
+    }
+
+    private void vectorAt(int node, float[] into) {
+        vectors[node / vectorsPerChunk].get((node % vectorsPerChunk) * dimension, into);
+    }
+
+    private void writeFile(FileChannel out, int count) throws IOException {
+        long[] offsets = new long[8];
+        out.position(HnswGraph.HEADER_BYTES);
+
+        offsets[0] = align(out);
+        long vectorBytes = (long) count * dimension * 4;
+        for (long copied = 0; copied < vectorBytes; ) {
+            copied += vectorChannel.transferTo(copied, vectorBytes - copied, out);
+        }
+        out.position(offsets[0] + vectorBytes);
+
+        offsets[1] = align(out);
+        writeInts(out, countryOrdinals, 0, count);
+        offsets[2] = align(out);
+        writeInts(out, industryOrdinals, 0, count);
+        offsets[3] = align(out);
+        writeInts(out, level0, 0, level0.length);
+
+        offsets[4] = align(out);
+        int upperNodes = 0;
+        for (int[][] levels : upperLevels) {
+            if (levels != null) {
+                upperNodes++;
+            }
+        }
+        putInt(out, upperNodes);
+        for (int node = 0; node < count; node++) {
+            int[][] levels = upperLevels[node];
+            if (levels == null) {
+                continue;
+            }
+            putInt(out, node);
+            putInt(out, levels.length - 1);
+            for (int level = 1; level < levels.length; level++) {
+                putInt(out, levels[level].length);
+                writeInts(out, levels[level], 0, levels[level].length);
+            }
+        }
+
+        offsets[5] = align(out);
+        byte[][] idBytes = new byte[count][];
+        int[] idOffsets = new int[count + 1];
+        for (int node = 0; node < count; node++) {
+            idBytes[node] = ids.get(node).getBytes(StandardCharsets.UTF_8);
+            idOffsets[node + 1] = idOffsets[node] + idBytes[node].length;
+        }
+        writeInts(out, idOffsets, 0, idOffsets.length);
+        offsets[6] = align(out);
+        for (byte[] bytes : idBytes) {
+            putBytes(out, bytes);
+        }
+
+        offsets[7] = align(out);
+        writeStrings(out, countries.values);
+        writeStrings(out, industries.values);
+        flush(out);
+
+        ByteBuffer header = ByteBuffer.allocate(HnswGraph.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(HnswGraph.MAGIC).putInt(HnswGraph.FORMAT_VERSION).putInt(dimension).putInt(count)
+                .putInt(maxConn).putInt(maxConn0).putInt(Math.max(entryPoint, 0)).putInt(maxLevel)
+                .putInt(similarity.ordinal()).putInt(0).putLong(System.currentTimeMillis());
+        for (long offset : offsets) {
+            header.putLong(offset);
+        }
+        header.clear();
+        out.write(header, 0);
+    }
+
+    private long align(FileChannel out) throws IOException {
+        flush(out);
+        long position = out.position();
+        long aligned = (position + HnswGraph.ALIGNMENT - 1) / HnswGraph.ALIGNMENT * HnswGraph.ALIGNMENT;
+        out.position(aligned);
+        return aligned;
+    }
+
+    private void writeInts(FileChannel out, int[] values, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            putInt(out, values[i]);
+        }
+    }
+
+    private void writeStrings(FileChannel out, List<String> values) throws IOException {
+        putInt(out, values.size());
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(out, bytes.length);
+            putBytes(out, bytes);
+        }
+    }
+
+    private void putInt(FileChannel out, int value) throws IOException {
+        if (staging.remaining() < 4) {
+            flush(out);
+        }
+        staging.putInt(value);
+    }
+
+    private void putBytes(FileChannel out, byte[] bytes) throws IOException {
+        for (int from = 0; from < bytes.length; ) {
+            if (!staging.hasRemaining()) {
+                flush(out);
+            }
+            int length = Math.min(staging.remaining(), bytes.length - from);
+            staging.put(bytes, from, length);
+            from += length;
+        }
+    }
+
+    private void flush() throws IOException {
+        flush(vectorChannel);
+    }
+
+    private void flush(FileChannel out) throws IOException {
+        staging.flip();
+        while (staging.hasRemaining()) {
+            out.write(staging);
+        }
+        staging.clear();
+    }
+
+    /**
+     * Distinct values in first-seen order
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int ordinal(String value) {
+            if (value == null || value.isEmpty()) {
+                return -1;
+            }
+            return ordinals.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+}
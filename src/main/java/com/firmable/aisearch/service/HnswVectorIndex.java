@@ -0,0 +1,488 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.solr.IndexVersionMonitor;
+import com.firmable.aisearch.solr.SelectRequest;
+import com.firmable.aisearch.solr.SolrClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process HNSW index over the company embedding fields, used instead of Solr kNN when
+ * {@code search.vector.index=hnsw}.
+ *
+ * Each field in {@code search.vector.hnsw.fields} has its own graph file under {@code search.vector.hnsw.dir},
+ * built from a cursorMark export of the core and memory-mapped, so a restart only maps the existing files.
+ * Graphs are rebuilt on a schedule and from the admin API, not on every index change; until then new companies
+ * are missing and deleted ones are dropped by Solr when the neighbours are fetched. Searches may filter on
+ * exact country and industry values; requests with other filters, or for fields without a graph, go to Solr kNN.
+ *
+ * The neighbours are sent to Solr as a constant-score query on their ids, each scored with its similarity,
+ * so the documents, facets, sorting and paging come from Solr exactly as they would for a {@code {!knn}} query.
+ */
+@Service
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HnswVectorIndex.class);
+
+    private static final String FILE_SUFFIX = ".hnsw";
+
+    // Marks request filters the graph cannot apply
+    private static final HnswGraph.Filter UNSUPPORTED = new HnswGraph.Filter(null, null);
+
+    @Autowired
+    private SolrClient solrClient;
+
+    @Autowired
+    private IndexVersionMonitor indexVersionMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${search.vector.index:solr}")
+    private String vectorIndex;
+
+    @Value("${search.vector.hnsw.dir:data/vector-index}")
+    private String directory;
+
+    @Value("${search.vector.hnsw.fields:name}")
+    private String fieldSpec;
+
+    @Value("${search.vector.hnsw.similarity:cosine}")
+    private String similarity;
+
+    @Value("${search.vector.hnsw.m:16}")
+    private int maxConn;
+
+    @Value("${search.vector.hnsw.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${search.vector.hnsw.ef-search:100}")
+    private int efSearch;
+
+    @Value("${search.vector.hnsw.exact-threshold:10000}")
+    private int exactThreshold;
+
+    @Value("${search.vector.hnsw.batch-size:500}")
+    private int batchSize;
+
+    @Value("${search.vector.hnsw.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vector-index-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private volatile Map<String, HnswGraph> graphs = Collections.emptyMap();
+    private volatile VectorIndexStatus status = new VectorIndexStatus();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<String, HnswGraph> loaded = new LinkedHashMap<>();
+        for (String field : fields()) {
+            Path file = file(field);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                loaded.put(field, HnswGraph.open(file));
+            } catch (Exception e) {
+                log.warn("Could not open vector index {}: {}", file, e.getMessage());
+            }
+        }
+        graphs = Collections.unmodifiableMap(loaded);
+        log.info("Vector index opened {} of {} fields from {}", loaded.size(), fields().size(), directory);
+        if (loaded.size() < fields().size() && buildOnStartup) {
+            triggerRebuild("startup");
+        }
+    }
+
+    @Scheduled(cron = "${search.vector.hnsw.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        if (isEnabled()) {
+            triggerRebuild("schedule");
+        }
+    }
+
+    public boolean isEnabled() {
+        return "hnsw".equalsIgnoreCase(vectorIndex.trim());
+    }
+
+    /**
+     * Start a background export and build of every configured field unless the local index is disabled or a
+     * build is already running.
+     * @return true if a new build was started
+     */
+    public boolean triggerRebuild(String reason) {
+        if (!isEnabled() || !building.compareAndSet(false, true)) {
+            return false;
+        }
+        buildExecutor.submit(() -> {
+            try {
+                build(reason);
+            } finally {
+                building.set(false);
+            }
+        });
+        return true;
+    }
+
+    public VectorIndexStatus getStatus() {
+        VectorIndexStatus snapshot = status.copy();
+        snapshot.setEnabled(isEnabled());
+        snapshot.setBuilding(building.get());
+        Map<String, Integer> documents = new LinkedHashMap<>();
+        graphs.forEach((field, graph) -> documents.put(SemanticSearchService.shortVectorFieldName(field), graph.size()));
+        snapshot.setDocuments(documents);
+        return snapshot;
+    }
+
+    @Override
+    public String getName() {
+        return "hnsw";
+    }
+
+    @Override
+    public boolean supports(String field, Map<String, Object> filters) {
+        return graphs.containsKey(field) && filter(graphs.get(field), filters) != UNSUPPORTED;
+    }
+
+    @Override
+    public void selectNearest(SelectRequest request, String param, String field, float[] vector, int topK,
+                              Map<String, Object> filters, double boost) {
+        HnswGraph graph = graphs.get(field);
+        HnswGraph.Filter filter = filter(graph, filters);
+        if (graph == null || filter == UNSUPPORTED) {
+            throw new IllegalStateException("No local vector index for " + field + " with filters " + filters);
+        }
+
+        long start = System.nanoTime();
+        List<HnswGraph.Neighbor> neighbours = graph.search(vector, topK, efSearch, filter, exactThreshold);
+        Timer.builder("vector.index.search")
+                .description("Nearest-neighbour searches of the local vector index")
+                .tag("field", SemanticSearchService.shortVectorFieldName(field))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!neighbours.isEmpty()) {
+            request.param(param, idQuery(neighbours, boost));
+        } else if ("q".equals(param)) {
+            request.param(param, "{!lucene}-*:*");
+        }
+    }
+
+    /**
+     * {@code {!lucene q.op=OR}id:"a"^=0.912 id:"b"^=0.874 ...}: each neighbour scores exactly its similarity
+     */
+    static String idQuery(List<HnswGraph.Neighbor> neighbours, double boost) {
+        StringBuilder query = new StringBuilder(32 + neighbours.size() * 40).append("{!lucene q.op=OR}");
+        if (boost > 0) {
+            query.append('(');
+        }
+        for (int i = 0; i < neighbours.size(); i++) {
+            HnswGraph.Neighbor neighbour = neighbours.get(i);
+            if (i > 0) {
+                query.append(' ');
+            }
+            query.append("id:\"");
+            String id = neighbour.getId();
+            for (int c = 0; c < id.length(); c++) {
+                char ch = id.charAt(c);
+                if (ch == '"' || ch == '\\') {
+                    query.append('\\');
+                }
+                query.append(ch);
+            }
+            // Fixed point: the query parser does not accept exponents in boosts
+            long scaled = Math.round(Math.max(0f, neighbour.getScore()) * 1_000_000.0);
+            query.append("\"^=").append(scaled / 1_000_000).append('.');
+            String fraction = Long.toString(scaled % 1_000_000);
+            for (int pad = fraction.length(); pad < 6; pad++) {
+                query.append('0');
+            }
+            query.append(fraction);
+        }
+        if (boost > 0) {
+            query.append(")^").append(boost);
+        }
+        return query.toString();
+    }
+
+    /**
+     * The graph filter for the request filters (keyed as in comprehensive search), null for none, or
+     * {@link #UNSUPPORTED}. Only filters the graph applies exactly as Solr's fq would are supported:
+     * {@code country}/{@code country_s} and {@code industry_s} values without whitespace, matched exactly
+     * as the string fields are. A multi-word value is sent unquoted and parsed into several terms by Solr,
+     * and {@code industry} is an analyzed text field, so those go to Solr kNN.
+     */
+    private HnswGraph.Filter filter(HnswGraph graph, Map<String, Object> filters) {
+        if (graph == null) {
+            return UNSUPPORTED;
+        }
+        if (filters == null || filters.isEmpty()) {
+            return null;
+        }
+        boolean[] countries = null;
+        boolean[] industries = null;
+        for (Map.Entry<String, Object> entry : filters.entrySet()) {
+            List<String> values = filterValues(entry.getValue());
+            if (values == null || values.stream().anyMatch(HnswVectorIndex::hasWhitespace)) {
+                return UNSUPPORTED;
+            }
+            if (values.isEmpty()) {
+                continue;
+            }
+            switch (entry.getKey().toLowerCase()) {
+                case "country":
+                case "country_s":
+                    countries = and(countries, exactMatches(graph.getCountries(), values));
+                    break;
+                case "industry_s":
+                    industries = and(industries, exactMatches(graph.getIndustries(), values));
+                    break;
+                default:
+                    return UNSUPPORTED;
+            }
+        }
+        return countries == null && industries == null ? null : new HnswGraph.Filter(countries, industries);
+    }
+
+    /**
+     * Values of a list or single-valued filter, or null for a range
+     */
+    private static List<String> filterValues(Object value) {
+        if (value instanceof Map) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                values.add(String.valueOf(item));
+            }
+        } else if (value != null) {
+            values.add(value.toString());
+        }
+        return values;
+    }
+
+    private static boolean[] exactMatches(List<String> dictionary, List<String> values) {
+        boolean[] matches = new boolean[dictionary.size()];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = values.contains(dictionary.get(i));
+        }
+        return matches;
+    }
+
+    private static boolean hasWhitespace(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isWhitespace(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean[] and(boolean[] a, boolean[] b) {
+        if (a == null) {
+            return b;
+        }
+        for (int i = 0; i < a.length; i++) {
+            a[i] &= b[i];
+        }
+        return a;
+    }
+
+    private void build(String reason) {
+        VectorIndexStatus next = status.copy();
+        next.setLastBuildReason(reason);
+        next.setLastBuildStarted(Instant.now().toString());
+
+        long start = System.currentTimeMillis();
+        Map<String, HnswGraphBuilder> builders = new LinkedHashMap<>();
+        try {
+            long indexVersion = indexVersionMonitor.refresh();
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            export(dir, builders);
+
+            Map<String, HnswGraph> built = new LinkedHashMap<>(graphs);
+            for (Map.Entry<String, HnswGraphBuilder> builder : builders.entrySet()) {
+                long fieldStart = System.currentTimeMillis();
+                Path file = file(builder.getKey());
+                builder.getValue().write(file);
+                built.put(builder.getKey(), HnswGraph.open(file));
+                log.info("Vector index for {} built: {} documents, {} dimensions in {}ms", builder.getKey(),
+                        builder.getValue().size(), builder.getValue().getDimension(), System.currentTimeMillis() - fieldStart);
+            }
+            graphs = Collections.unmodifiableMap(built);
+
+            next.setBuildTimeMs(System.currentTimeMillis() - start);
+            next.setIndexVersion(indexVersion);
+            next.setLastSuccessfulBuild(Instant.now().toString());
+            next.setLastError(null);
+            log.info("Vector index rebuilt ({}) in {}ms", reason, next.getBuildTimeMs());
+        } catch (Exception e) {
+            next.setBuildTimeMs(System.currentTimeMillis() - start);
+            next.setLastError(e.getMessage());
+            log.warn("Vector index rebuild failed ({}): {}", reason, e.getMessage());
+        } finally {
+            for (HnswGraphBuilder builder : builders.values()) {
+                try {
+                    builder.close();
+                } catch (Exception e) {
+                    log.debug("Could not remove vector index temp file: {}", e.getMessage());
+                }
+            }
+        }
+        status = next;
+    }
+
+    /**
+     * Walk the core with cursorMark, adding every document's vectors to the builder of each field it has
+     */
+    private void export(Path dir, Map<String, HnswGraphBuilder> builders) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        HnswGraph.Similarity similarityFunction = HnswGraph.Similarity.parse(similarity);
+        List<String> fields = fields();
+        String baseQuery = "/select?q=*:*&wt=json&sort=id+asc&rows=" + batchSize +
+                "&fl=id,country_s,industry_s," + String.join(",", fields);
+
+        String cursorMark = "*";
+        while (true) {
+            ResponseEntity<String> response = solrClient.get(baseQuery + "&cursorMark=" + URLEncoder.encode(cursorMark, StandardCharsets.UTF_8));
+            JsonNode root = mapper.readTree(response.getBody());
+
+            for (JsonNode doc : root.path("response").path("docs")) {
+                String id = doc.path("id").asText(null);
+                if (id == null) {
+                    continue;
+                }
+                String country = firstValue(doc.path("country_s"));
+                // The string fields the filters match exactly, so the graph agrees with Solr's fq
+                String industry = firstValue(doc.path("industry_s"));
+                for (String field : fields) {
+                    JsonNode values = doc.path(field);
+                    if (!values.isArray() || values.size() == 0) {
+                        continue;
+                    }
+                    float[] vector = new float[values.size()];
+                    for (int i = 0; i < vector.length; i++) {
+                        vector[i] = (float) values.get(i).asDouble();
+                    }
+                    HnswGraphBuilder builder = builders.get(field);
+                    if (builder == null) {
+                        builder = new HnswGraphBuilder(vector.length, similarityFunction, maxConn, efConstruction, dir);
+                        builders.put(field, builder);
+                    }
+                    builder.add(id, vector, country, industry);
+                }
+            }
+
+            String nextCursorMark = root.path("nextCursorMark").asText(cursorMark);
+            if (nextCursorMark.equals(cursorMark)) {
+                return;
+            }
+            cursorMark = nextCursorMark;
+        }
+    }
+
+    private static String firstValue(JsonNode node) {
+        JsonNode value = node.isArray() ? node.path(0) : node;
+        return value.isValueNode() ? value.asText() : null;
+    }
+
+    private List<String> fields() {
+        return new ArrayList<>(SemanticSearchService.parseVectorFields(fieldSpec).keySet());
+    }
+
+    private Path file(String field) {
+        return Paths.get(directory, field + FILE_SUFFIX);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    public static class VectorIndexStatus {
+        private boolean enabled;
+        private boolean building;
+        private String lastBuildReason;
+        private String lastBuildStarted;
+        private String lastSuccessfulBuild;
+        private long buildTimeMs;
+        private long indexVersion = -1;
+        private String lastError;
+        private Map<String, Integer> documents;
+
+        VectorIndexStatus copy() {
+            VectorIndexStatus copy = new VectorIndexStatus();
+            copy.enabled = enabled;
+            copy.building = building;
+            copy.lastBuildReason = lastBuildReason;
+            copy.lastBuildStarted = lastBuildStarted;
+            copy.lastSuccessfulBuild = lastSuccessfulBuild;
+            copy.buildTimeMs = buildTimeMs;
+            copy.indexVersion = indexVersion;
+            copy.lastError = lastError;
+            copy.documents = documents;
+            return copy;
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public boolean isBuilding() { return building; }
+        public void setBuilding(boolean building) { this.building = building; }
+
+        public String getLastBuildReason() { return lastBuildReason; }
+        public void setLastBuildReason(String lastBuildReason) { this.lastBuildReason = lastBuildReason; }
+
+        public String getLastBuildStarted() { return lastBuildStarted; }
+        public void setLastBuildStarted(String lastBuildStarted) { this.lastBuildStarted = lastBuildStarted; }
+
+        public String getLastSuccessfulBuild() { return lastSuccessfulBuild; }
+        public void setLastSuccessfulBuild(String lastSuccessfulBuild) { this.lastSuccessfulBuild = lastSuccessfulBuild; }
+
+        public long getBuildTimeMs() { return buildTimeMs; }
+        public void setBuildTimeMs(long buildTimeMs) { this.buildTimeMs = buildTimeMs; }
+
+        public long getIndexVersion() { return indexVersion; }
+        public void setIndexVersion(long indexVersion) { this.indexVersion = indexVersion; }
+
+        public String getLastError() { return lastError; }
+        public void setLastError(String lastError) { this.lastError = lastError; }
+
+        public Map<String, Integer> getDocuments() { return documents; }
+        public void setDocuments(Map<String, Integer> documents) { this.documents = documents; }
+    }
+}
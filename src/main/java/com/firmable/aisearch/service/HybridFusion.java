@@ -0,0 +1,197 @@
+package com.firmable.aisearch.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process fusion of a lexical and a vector result list. Fused documents keep the 1-based rank and raw
+ * score they had in each list ({@code lexicalRank}, {@code lexicalScore}, {@code vectorRank},
+ * {@code vectorScore}), and {@code score} becomes the fused score. Also merges the kNN results of
+ * several vector fields into one vector list.
+ */
+final class HybridFusion {
+
+    static final String LEXICAL_RANK = "lexicalRank";
+    static final String LEXICAL_SCORE = "lexicalScore";
+    static final String VECTOR_RANK = "vectorRank";
+    static final String VECTOR_SCORE = "vectorScore";
+    static final String VECTOR_FIELD_SCORES = "vectorFieldScores";
+
+    enum Method {
+        /** Reciprocal Rank Fusion: sum of weight / (k + rank) over the lists a document appears in */
+        RRF,
+        /** Weighted sum of min-max normalized scores; a list a document is missing from contributes 0 */
+        NORMALIZED;
+
+        /**
+         * The method for a {@code search.hybrid.fusion} value, or null for anything else (e.g. "boost")
+         */
+        static Method parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            switch (value.trim().toLowerCase()) {
+                case "rrf":
+                    return RRF;
+                case "normalized":
+                    return NORMALIZED;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private HybridFusion() {}
+
+    /**
+     * Fuse the two relevance-ordered lists, merging documents by id, best fused score first. Ties keep
+     * lexical order, then vector order. The document maps are modified and returned, not copied.
+     */
+    static List<Map<String, Object>> fuse(List<Map<String, Object>> lexical, List<Map<String, Object>> vector,
+                                          Method method, int rrfK, double lexicalWeight, double vectorWeight) {
+        Map<Object, Map<String, Object>> merged = new LinkedHashMap<>(lexical.size() + vector.size());
+        collect(merged, lexical, LEXICAL_RANK, LEXICAL_SCORE);
+        collect(merged, vector, VECTOR_RANK, VECTOR_SCORE);
+
+        float[] lexicalRange = scoreRange(lexical);
+        float[] vectorRange = scoreRange(vector);
+        List<Map<String, Object>> fused = new ArrayList<>(merged.values());
+        for (Map<String, Object> doc : fused) {
+            double score;
+            if (method == Method.NORMALIZED) {
+                score = lexicalWeight * normalized(doc.get(LEXICAL_SCORE), lexicalRange)
+                        + vectorWeight * normalized(doc.get(VECTOR_SCORE), vectorRange);
+            } else {
+                score = reciprocalRank(doc.get(LEXICAL_RANK), rrfK, lexicalWeight)
+                        + reciprocalRank(doc.get(VECTOR_RANK), rrfK, vectorWeight);
+            }
+            doc.put("score", (float) score);
+        }
+        fused.sort(Comparator.comparingDouble(doc -> -((Float) doc.get("score"))));
+        return fused;
+    }
+
+    /**
+     * Merge per-field kNN results by id, best first. A document scores the weighted sum of its similarity in each
+     * field that retrieved it, so a company near the query on several fields outranks one near it on a single
+     * field. {@code vectorFieldScores} keeps the per-field similarity, keyed by short field name.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> fuseFields(Map<String, List<Map<String, Object>>> resultsByField,
+                                                Map<String, Double> weights) {
+        Map<Object, Map<String, Object>> merged = new LinkedHashMap<>();
+        Map<Object, double[]> totals = new HashMap<>();
+        for (Map.Entry<String, List<Map<String, Object>>> results : resultsByField.entrySet()) {
+            String fieldName = SemanticSearchService.shortVectorFieldName(results.getKey());
+            double weight = weights.getOrDefault(results.getKey(), 1.0);
+            for (Map<String, Object> doc : results.getValue()) {
+                Object id = doc.get("id");
+                Object key = id != null ? id : new Object();
+                Map<String, Object> target = merged.computeIfAbsent(key, k -> doc);
+                if (target != doc) {
+                    for (Map.Entry<String, Object> field : doc.entrySet()) {
+                        if (!"score".equals(field.getKey())) {
+                            target.putIfAbsent(field.getKey(), field.getValue());
+                        }
+                    }
+                }
+                float score = score(doc.get("score"));
+                ((Map<String, Float>) target.computeIfAbsent(VECTOR_FIELD_SCORES, k -> new LinkedHashMap<String, Float>()))
+                        .put(fieldName, score);
+                totals.computeIfAbsent(key, k -> new double[1])[0] += weight * score;
+            }
+        }
+        
+        List<Map<String, Object>> fused = new ArrayList<>(merged.size());
+        for (Map.Entry<Object, Map<String, Object>> entry : merged.entrySet()) {
+            entry.getValue().put("score", (float) totals.get(entry.getKey())[0]);
+            fused.add(entry.getValue());
+        }
+        fused.sort(Comparator.comparingDouble(doc -> -((Float) doc.get("score"))));
+        return fused;
+    }
+
+    /**
+     * "hybrid" when both retrievers returned the document, "lexical" or "semantic" when one did,
+     * or null if the document did not come out of {@link #fuse}
+     */
+    static String provenance(Map<String, Object> doc) {
+        boolean lexical = doc.containsKey(LEXICAL_RANK);
+        boolean vector = doc.containsKey(VECTOR_RANK);
+        if (lexical && vector) {
+            return "hybrid";
+        }
+        return lexical ? "lexical" : vector ? "semantic" : null;
+    }
+
+    /**
+     * Stable in-process sort of fused documents by a field; documents without the field go last
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static void sort(List<Map<String, Object>> docs, String field, boolean descending) {
+        Comparator<Comparable> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        docs.sort(Comparator.comparing(doc -> sortValue(doc.get(field)), Comparator.nullsLast(order)));
+    }
+
+    private static void collect(Map<Object, Map<String, Object>> merged, List<Map<String, Object>> docs,
+                                String rankField, String scoreField) {
+        for (int i = 0; i < docs.size(); i++) {
+            Map<String, Object> doc = docs.get(i);
+            Object id = doc.get("id");
+            Map<String, Object> target = merged.computeIfAbsent(id != null ? id : new Object(), k -> doc);
+            if (target != doc) {
+                // Same document from the other retriever: keep the first copy, fill in anything it lacks
+                for (Map.Entry<String, Object> field : doc.entrySet()) {
+                    if (!"score".equals(field.getKey())) {
+                        target.putIfAbsent(field.getKey(), field.getValue());
+                    }
+                }
+            }
+            target.put(rankField, i + 1);
+            target.put(scoreField, score(doc.get("score")));
+        }
+    }
+
+    private static float[] scoreRange(List<Map<String, Object>> docs) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (Map<String, Object> doc : docs) {
+            float score = score(doc.get("score"));
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        return new float[] {min, max};
+    }
+
+    private static double normalized(Object score, float[] range) {
+        if (score == null) {
+            return 0;
+        }
+        float spread = range[1] - range[0];
+        return spread > 0 ? (((Float) score) - range[0]) / spread : 1.0;
+    }
+
+    private static double reciprocalRank(Object rank, int k, double weight) {
+        return rank == null ? 0 : weight / (k + (Integer) rank);
+    }
+
+    private static float score(Object value) {
+        return value instanceof Number ? ((Number) value).floatValue() : 0f;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable sortValue(Object value) {
+        if (value instanceof List) {
+            List<?> values = (List<?>) value;
+            value = values.isEmpty() ? null : values.get(0);
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value instanceof Comparable ? (Comparable) value : value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.firmable.aisearch.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Dot product of two int8 vectors, one stored in an off-heap buffer
+ */
+interface Int8DotProduct {
+
+    String getName();
+
+    /**
+     * Sum of {@code vectors[offset + i] * query[i]} over the query's dimensions
+     */
+    int dot(ByteBuffer vectors, int offset, byte[] query);
+}
@@ -0,0 +1,140 @@
+package com.firmable.aisearch.service;
+
+import java.util.*;
+
+/**
+ * Precompiled Aho-Corasick automaton over a fixed set of lower-case keywords.
+ *
+ * A single scan of the input reports every keyword occurrence that sits on word boundaries, which is the
+ * same rule as the {@code \bkeyword\b} regexes it replaces: the characters immediately before and after
+ * the occurrence must not be word characters. Built once and immutable, so it is safe to share across threads.
+ */
+class KeywordMatcher {
+
+    private final String[] keywords;
+    // Goto function as per-state sorted transition tables
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    // Keyword ids ending at each state, including those reached through failure links
+    private final int[][] outputs;
+
+    KeywordMatcher(Collection<String> keywordSet) {
+        this.keywords = new LinkedHashSet<>(keywordSet).toArray(new String[0]);
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        stateOutputs.add(new ArrayList<>());
+
+        for (int id = 0; id < keywords.length; id++) {
+            int state = 0;
+            for (char c : keywords[id].toCharArray()) {
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new TreeMap<>());
+                    stateOutputs.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            stateOutputs.get(state).add(id);
+        }
+
+        int states = trie.size();
+        transitionChars = new char[states][];
+        transitionTargets = new int[states][];
+        for (int state = 0; state < states; state++) {
+            TreeMap<Character, Integer> edges = trie.get(state);
+            transitionChars[state] = new char[edges.size()];
+            transitionTargets[state] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                transitionChars[state][i] = edge.getKey();
+                transitionTargets[state][i] = edge.getValue();
+                i++;
+            }
+        }
+
+        // Breadth-first construction of failure links
+        failure = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[0]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionTargets[state][i];
+                int fallback = failure[state];
+                while (fallback != 0 && next(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = next(fallback, c);
+                failure[child] = target >= 0 && target != child ? target : 0;
+                stateOutputs.get(child).addAll(stateOutputs.get(failure[child]));
+                queue.add(child);
+            }
+        }
+
+        outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            outputs[state] = stateOutputs.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    String keyword(int id) {
+        return keywords[id];
+    }
+
+    /**
+     * All word-bounded keyword occurrences in the text, in order of their end position
+     */
+    List<Match> findAll(String text) {
+        List<Match> matches = new ArrayList<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int target;
+            while ((target = next(state, c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = Math.max(target, 0);
+
+            for (int id : outputs[state]) {
+                int start = i + 1 - keywords[id].length();
+                int end = i + 1;
+                if ((start == 0 || !isWordChar(text.charAt(start - 1))) && (end == text.length() || !isWordChar(text.charAt(end)))) {
+                    matches.add(new Match(id, start, end));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private int next(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index >= 0 ? transitionTargets[state][index] : -1;
+    }
+
+    /**
+     * Word characters as {@code \b} sees them
+     */
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    static final class Match {
+        final int keywordId;
+        final int start;
+        final int end;
+
+        Match(int keywordId, int start, int end) {
+            this.keywordId = keywordId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -2,14 +2,16 @@ package com.firmable.aisearch.service;
 
 import org.springframework.stereotype.Service;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
 @Service
 public class QueryUnderstandingService {
     
-    private static final Map<String, List<String>> INDUSTRY_KEYWORDS = new HashMap<>();
-    private static final Map<String, List<String>> LOCATION_KEYWORDS = new HashMap<>();
+    static final Map<String, List<String>> INDUSTRY_KEYWORDS = new HashMap<>();
+    static final Map<String, List<String>> LOCATION_KEYWORDS = new HashMap<>();
+    static final List<String> FILLER_WORDS = Arrays.asList("companies", "company", "businesses", "business", "firms", "firm", "organizations", "organization", "in", "at", "from", "near", "around");
+    
+    // One automaton over every keyword and filler word, replacing a compiled regex per keyword per query
+    private static final KeywordMatcher KEYWORD_MATCHER;
     
     static {
         INDUSTRY_KEYWORDS.put("technology", Arrays.asList("tech", "technology", "software", "it", "computer", "digital", "internet", "web", "app", "mobile", "ai", "artificial intelligence", "machine learning", "data", "cloud", "saas", "platform", "development", "programming", "coding", "engineering"));
@@ -46,6 +48,11 @@ public class QueryUnderstandingService {
         LOCATION_KEYWORDS.put("india", Arrays.asList("india", "indian", "mumbai", "delhi", "bangalore", "hyderabad", "chennai", "kolkata", "pune", "ahmedabad"));
         LOCATION_KEYWORDS.put("china", Arrays.asList("china", "chinese", "beijing", "shanghai", "guangzhou", "shenzhen", "wuhan", "chengdu", "dongguan"));
         LOCATION_KEYWORDS.put("japan", Arrays.asList("japan", "japanese", "tokyo", "osaka", "yokohama", "nagoya", "sapporo", "kobe", "kyoto", "fukuoka"));
+        
+        List<String> allKeywords = new ArrayList<>(FILLER_WORDS);
+        INDUSTRY_KEYWORDS.values().forEach(allKeywords::addAll);
+        LOCATION_KEYWORDS.values().forEach(allKeywords::addAll);
+        KEYWORD_MATCHER = new KeywordMatcher(allKeywords.stream().map(String::toLowerCase).toList());
     }
     
     public ParsedQuery parseQuery(String query) {
@@ -57,9 +64,16 @@ public class QueryUnderstandingService {
         ParsedQuery parsed = new ParsedQuery();
         parsed.setOriginalQuery(query);
         
-        List<String> detectedIndustries = extractIndustries(normalizedQuery);
-        List<String> detectedLocations = extractLocations(normalizedQuery);
-        String cleanedQuery = cleanQuery(normalizedQuery, detectedIndustries, detectedLocations);
+        // Single pass over the query finds every keyword; detection and cleaning both work from these matches
+        List<KeywordMatcher.Match> matches = KEYWORD_MATCHER.findAll(normalizedQuery);
+        Set<String> matchedKeywords = new HashSet<>();
+        for (KeywordMatcher.Match match : matches) {
+            matchedKeywords.add(KEYWORD_MATCHER.keyword(match.keywordId));
+        }
+        
+        List<String> detectedIndustries = extractEntities(INDUSTRY_KEYWORDS, matchedKeywords);
+        List<String> detectedLocations = extractEntities(LOCATION_KEYWORDS, matchedKeywords);
+        String cleanedQuery = cleanQuery(normalizedQuery, matches, detectedIndustries, detectedLocations);
         
         parsed.setIndustries(detectedIndustries);
         parsed.setLocations(detectedLocations);
@@ -68,16 +82,13 @@ public class QueryUnderstandingService {
         return parsed;
     }
     
-    private List<String> extractIndustries(String query) {
+    private List<String> extractEntities(Map<String, List<String>> keywordsByEntity, Set<String> matchedKeywords) {
         List<String> detected = new ArrayList<>();
         
-        for (Map.Entry<String, List<String>> entry : INDUSTRY_KEYWORDS.entrySet()) {
-            String industry = entry.getKey();
-            List<String> keywords = entry.getValue();
-            
-            for (String keyword : keywords) {
-                if (containsKeyword(query, keyword)) {
-                    detected.add(industry);
+        for (Map.Entry<String, List<String>> entry : keywordsByEntity.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                if (matchedKeywords.contains(keyword)) {
+                    detected.add(entry.getKey());
                     break;
                 }
             }
@@ -86,32 +97,7 @@ public class QueryUnderstandingService {
         return detected;
     }
     
-    private List<String> extractLocations(String query) {
-        List<String> detected = new ArrayList<>();
-        
-        for (Map.Entry<String, List<String>> entry : LOCATION_KEYWORDS.entrySet()) {
-            String location = entry.getKey();
-            List<String> keywords = entry.getValue();
-            
-            for (String keyword : keywords) {
-                if (containsKeyword(query, keyword)) {
-                    detected.add(location);
-                    break;
-                }
-            }
-        }
-        
-        return detected;
-    }
-    
-    private boolean containsKeyword(String query, String keyword) {
-        String pattern = "\\b" + Pattern.quote(keyword.toLowerCase()) + "\\b";
-        return Pattern.compile(pattern).matcher(query).find();
-    }
-    
-    private String cleanQuery(String query, List<String> industries, List<String> locations) {
-        String cleaned = query;
-        
+    private String cleanQuery(String query, List<KeywordMatcher.Match> matches, List<String> industries, List<String> locations) {
         Set<String> wordsToRemove = new HashSet<>();
         
         for (String industry : industries) {
@@ -128,20 +114,48 @@ public class QueryUnderstandingService {
             }
         }
         
-        wordsToRemove.addAll(Arrays.asList("companies", "company", "businesses", "business", "firms", "firm", "organizations", "organization", "in", "at", "from", "near", "around"));
+        wordsToRemove.addAll(FILLER_WORDS);
         
-        for (String word : wordsToRemove) {
-            String pattern = "\\b" + Pattern.quote(word.toLowerCase()) + "\\b";
-            cleaned = cleaned.replaceAll(pattern, " ");
+        // Leftmost-longest occurrences of removable words, non-overlapping
+        List<KeywordMatcher.Match> removals = new ArrayList<>();
+        for (KeywordMatcher.Match match : matches) {
+            if (wordsToRemove.contains(KEYWORD_MATCHER.keyword(match.keywordId))) {
+                removals.add(match);
+            }
         }
+        removals.sort((a, b) -> a.start != b.start ? Integer.compare(a.start, b.start) : Integer.compare(b.end, a.end));
         
-        cleaned = cleaned.replaceAll("\\s+", " ").trim();
+        // Copy the kept text, turning removed words into spaces and collapsing whitespace as we go
+        StringBuilder cleaned = new StringBuilder(query.length());
+        int position = 0;
+        int removal = 0;
+        boolean pendingSpace = false;
+        while (position < query.length()) {
+            while (removal < removals.size() && removals.get(removal).start < position) {
+                removal++;
+            }
+            if (removal < removals.size() && removals.get(removal).start == position) {
+                position = removals.get(removal).end;
+                pendingSpace = true;
+                continue;
+            }
+            char c = query.charAt(position++);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+            } else {
+                if (pendingSpace && cleaned.length() > 0) {
+                    cleaned.append(' ');
+                }
+                pendingSpace = false;
+                cleaned.append(c);
+            }
+        }
         
-        if (cleaned.isEmpty() && !industries.isEmpty()) {
-            cleaned = industries.get(0);
+        if (cleaned.length() == 0 && !industries.isEmpty()) {
+            return industries.get(0);
         }
         
-        return cleaned;
+        return cleaned.toString();
     }
     
     public Map<String, Object> buildFiltersFromParsedQuery(ParsedQuery parsedQuery) {
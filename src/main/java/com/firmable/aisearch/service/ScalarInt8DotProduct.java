@@ -0,0 +1,23 @@
+package com.firmable.aisearch.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plain loop, for JVMs started without the {@code jdk.incubator.vector} module
+ */
+final class ScalarInt8DotProduct implements Int8DotProduct {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public int dot(ByteBuffer vectors, int offset, byte[] query) {
+        int sum = 0;
+        for (int i = 0; i < query.length; i++) {
+            sum += vectors.get(offset + i) * query[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,230 @@
+package com.firmable.aisearch.service;
+
+import com.firmable.aisearch.model.ComprehensiveSearchResponse;
+import com.firmable.aisearch.solr.IndexVersionChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Whole-response cache for comprehensive search, keyed on a canonical form of the request.
+ *
+ * Concurrent identical requests share one computation. Entries are bounded by size and TTL, and every entry
+ * is dropped when the Solr index version changes; keys carry a generation number so a search that was already
+ * running when the index changed cannot repopulate the cache with stale results. Degraded responses (see
+ * {@link ComprehensiveSearchResponse.SearchMetadata#isDegraded}) are returned but never cached.
+ */
+@Service
+public class SearchResponseCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${search.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.cache.max-size:5000}")
+    private long maxSize;
+
+    @Value("${search.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    private AsyncCache<String, ComprehensiveSearchResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "searchResponse");
+    }
+
+    @EventListener
+    public void onIndexVersionChanged(IndexVersionChangedEvent event) {
+        generation.incrementAndGet();
+        cache.synchronous().invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached response for the key, or the result of running the search on the calling thread.
+     * The returned response is a copy whose search metadata reports the cache outcome; its documents, facets
+     * and pagination are copies too, so callers may change them without touching the cached entry.
+     */
+    public ComprehensiveSearchResponse get(String key, Callable<ComprehensiveSearchResponse> search) throws Exception {
+        if (!enabled) {
+            return search.call();
+        }
+
+        String generationKey = generation.get() + "|" + key;
+        CompletableFuture<ComprehensiveSearchResponse> pending = new CompletableFuture<>();
+        CompletableFuture<ComprehensiveSearchResponse> cached = cache.get(generationKey, (k, executor) -> pending);
+
+        if (cached != pending) {
+            try {
+                return withCacheStatus(cached.join(), "hit");
+            } catch (CompletionException e) {
+                // The request we piggybacked on failed; run our own search rather than share its error
+                return withCacheStatus(search.call(), "miss");
+            }
+        }
+
+        try {
+            ComprehensiveSearchResponse response = search.call();
+            if (response.getSearchMetadata() != null && response.getSearchMetadata().isDegraded()) {
+                // Partial results from a failed embedding or leg must not outlive the failure; requests
+                // already waiting on this one still get them
+                cache.synchronous().invalidate(generationKey);
+                pending.complete(response);
+                return withCacheStatus(response, "bypass");
+            }
+            pending.complete(response);
+            return withCacheStatus(response, "miss");
+        } catch (Exception e) {
+            // Failed futures are removed from the cache, so the next request retries
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public CacheStats getStats() {
+        return cache.synchronous().stats();
+    }
+
+    public long getSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private ComprehensiveSearchResponse withCacheStatus(ComprehensiveSearchResponse response, String status) {
+        ComprehensiveSearchResponse.SearchMetadata metadata = response.getSearchMetadata() != null
+                ? response.getSearchMetadata().copy()
+                : new ComprehensiveSearchResponse.SearchMetadata();
+        CacheStats stats = cache.synchronous().stats();
+        metadata.setCacheStatus(status);
+        metadata.setCacheHits(stats.hitCount());
+        metadata.setCacheMisses(stats.missCount());
+
+        Map<String, Map<String, Integer>> facets = null;
+        if (response.getFacets() != null) {
+            facets = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> facet : response.getFacets().entrySet()) {
+                facets.put(facet.getKey(), new LinkedHashMap<>(facet.getValue()));
+            }
+        }
+        return new ComprehensiveSearchResponse(copyDocuments(response.getDocuments()), response.getTotalResults(), facets,
+                response.getPagination() != null ? response.getPagination().copy() : null, response.getQueryInfo(), metadata);
+    }
+
+    private static List<Map<String, Object>> copyDocuments(List<Map<String, Object>> documents) {
+        if (documents == null) {
+            return null;
+        }
+        List<Map<String, Object>> copies = new ArrayList<>(documents.size());
+        for (Map<String, Object> document : documents) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> copy = (Map<String, Object>) copyValue(document);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * Deep copy of a document value: nested maps (e.g. vectorFieldScores) and multi-valued fields included
+     */
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> copy.put(k, copyValue(v)));
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for (Object item : (List<?>) value) {
+                copy.add(copyValue(item));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * Canonical request key: whitespace-collapsed query, filters and their values in sorted order, sorted facet
+     * and return fields, and the page or, for cursor paging, the cursor. Query case is kept because edismax treats upper-case AND/OR/NOT as operators.
+     * {@code rerankVersion} is the embedding store snapshot that re-ranks lexical results, 0 for none.
+     */
+    public static String key(String query, Map<String, Object> filters, List<String> facetFields, String sortField,
+                             String sortDirection, int page, int pageSize, List<String> returnFields, String searchType,
+                             String cursor, Map<String, Double> vectorFields, long rerankVersion) {
+        StringBuilder key = new StringBuilder();
+        key.append("q=").append(query != null ? query.trim().replaceAll("\\s+", " ") : "");
+        key.append("|fq=").append(canonical(filters != null ? filters : Collections.emptyMap()));
+        key.append("|facet=").append(sorted(facetFields));
+        key.append("|sort=").append(sortField != null ? sortField.trim() : "")
+           .append(' ').append("desc".equalsIgnoreCase(sortDirection) ? "desc" : "asc");
+        if (cursor != null && !"semantic".equals(searchType)) {
+            // The cursor selects the page and page is ignored, so it must not split the entries
+            key.append("|cursor=").append(cursor).append('x').append(pageSize);
+        } else {
+            // Semantic searches page by offset and ignore any cursor
+            key.append("|page=").append(page).append('x').append(pageSize);
+        }
+        key.append("|fl=").append(sorted(returnFields));
+        key.append("|type=").append(searchType);
+        if (vectorFields != null) {
+            // In request order: facets of a multi-vector semantic search come from the first field with results
+            key.append("|vec=").append(vectorFields);
+        }
+        if (rerankVersion > 0) {
+            // Pages cached before the store loaded, or from an older load, were ranked differently
+            key.append("|rerank=").append(rerankVersion);
+        }
+        return key.toString();
+    }
+
+    private static String canonical(Object value) {
+        if (value instanceof Map) {
+            StringBuilder out = new StringBuilder("{");
+            new TreeMap<>((Map<?, ?>) value).forEach((k, v) -> out.append(k).append(':').append(canonical(v)).append(';'));
+            return out.append('}').toString();
+        }
+        if (value instanceof Collection) {
+            // Filter lists are OR-ed, so their order does not matter
+            List<String> values = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                values.add(canonical(item));
+            }
+            Collections.sort(values);
+            return values.toString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static String sorted(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return "";
+        }
+        List<String> copy = new ArrayList<>(values);
+        Collections.sort(copy);
+        return String.join(",", copy);
+    }
+}
@@ -2,29 +2,95 @@ package com.firmable.aisearch.service;
 
 import com.firmable.aisearch.model.SearchResult;
 import com.firmable.aisearch.model.ComprehensiveSearchResponse;
+import com.firmable.aisearch.solr.FieldProjection;
+import com.firmable.aisearch.solr.SelectRequest;
+import com.firmable.aisearch.solr.SolrClient;
+import com.firmable.aisearch.solr.SolrResponseParser;
+import com.firmable.aisearch.logging.RequestLogging;
+import com.firmable.aisearch.metrics.SearchMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
 @Service
 public class SearchService {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
     @Autowired(required = false)
     private SemanticSearchService semanticSearchService;
     
     @Autowired
     private QueryUnderstandingService queryUnderstandingService;
 
+    @Autowired
+    private SolrClient solrClient;
+
+    @Autowired
+    private SearchResponseCache searchResponseCache;
+
+    @Autowired
+    private SearchMetrics searchMetrics;
+
+    @Autowired
+    private FieldProjection fieldProjection;
+
+    @Autowired
+    private EmbeddingStore embeddingStore;
+
+    @Autowired
+    @Qualifier("hybridExecutor")
+    private ExecutorService hybridExecutor;
+
+    // Candidate depth for semantic search; pages are served from within these nearest neighbours
+    @Value("${search.semantic.top-k:100}")
+    private int semanticTopK;
+
+    @Value("${search.export.batch-size:1000}")
+    private int exportBatchSize;
+
+    @Value("${search.rerank.top-n:100}")
+    private int rerankTopN;
+
+    // Hybrid search: rrf or normalized fuse separate lexical and kNN retrievals, boost adds kNN to edismax as a bq
+    @Value("${search.hybrid.fusion:rrf}")
+    private String hybridFusion;
+
+    @Value("${search.hybrid.lexical-depth:100}")
+    private int hybridLexicalDepth;
+
+    @Value("${search.hybrid.vector-depth:100}")
+    private int hybridVectorDepth;
+
+    @Value("${search.hybrid.rrf-k:60}")
+    private int hybridRrfK;
+
+    @Value("${search.hybrid.lexical-weight:1.0}")
+    private double hybridLexicalWeight;
+
+    @Value("${search.hybrid.vector-weight:1.0}")
+    private double hybridVectorWeight;
+
+    // Vector fields and weights searched when a request does not choose its own, e.g. "name,industry:0.5"
+    @Value("${search.vector.fields:name}")
+    private String defaultVectorFields;
+
     public ResponseEntity<String> search(
             String query,
             List<String> industry,
@@ -40,8 +106,7 @@ public class SearchService {
             List<String> facetFields,
             Integer facetLimit
     ) {
-        String SOLR_URL = "http://localhost:8983/solr/company/select";
-        StringBuilder solrQuery = new StringBuilder(SOLR_URL + "?wt=json&defType=edismax&qf=industry name locality");
+        StringBuilder solrQuery = new StringBuilder("/select?wt=json&defType=edismax&qf=industry name locality");
 
         // Free text
         solrQuery.append("&q=").append(query != null && !query.isBlank() ? URLEncoder.encode(query, StandardCharsets.UTF_8) : "*:*");
@@ -99,6 +164,7 @@ public class SearchService {
         // Pagination
         solrQuery.append("&start=").append(page * sizePerPage);
         solrQuery.append("&rows=").append(sizePerPage);
+        solrQuery.append("&fl=").append(fieldProjection.fl(FieldProjection.Endpoint.SEARCH, null));
 
         // Facet support
         if (facetFields != null && !facetFields.isEmpty()) {
@@ -123,19 +189,14 @@ public class SearchService {
         }
 
 
-        // Log the Solr query for debugging
-        System.out.println("=== SOLR QUERY DEBUG ===");
-        System.out.println("Full Solr Query URL: " + solrQuery.toString());
-        System.out.println("========================");
+        logSolrQuery("Search", solrQuery);
 
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<String> response = restTemplate.exchange(solrQuery.toString(), HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+        ResponseEntity<String> response = solrClient.get(solrQuery.toString());
 
-        // Log the Solr response for debugging
-        System.out.println("=== ORIGINAL SEARCH SOLR RESPONSE DEBUG ===");
-        System.out.println("HTTP Status: " + response.getStatusCode());
-        System.out.println("Response Body: " + response.getBody());
-        System.out.println("===========================================");
+        // Response bodies are only logged for requests sent with X-Debug
+        if (RequestLogging.isDebug()) {
+            log.info("Search Solr response ({}): {}", response.getStatusCode(), response.getBody());
+        }
 
         return response;
     }
@@ -177,46 +238,114 @@ public class SearchService {
             List<String> returnFields,
             String searchType
     ) throws Exception {
-        long startTime = System.currentTimeMillis();
+        return comprehensiveSearch(query, filters, facetFields, sortField, sortDirection, page, pageSize, returnFields, searchType, null);
+    }
+
+    public ComprehensiveSearchResponse comprehensiveSearch(
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int page,
+            int pageSize,
+            List<String> returnFields,
+            String searchType,
+            String cursor
+    ) throws Exception {
+        return comprehensiveSearch(query, filters, facetFields, sortField, sortDirection, page, pageSize, returnFields, searchType, cursor, null);
+    }
+
+    /**
+     * As above; a non-null {@code cursor} ("*" for the first page, then the previous page's nextCursor) pages
+     * lexical and hybrid searches with Solr cursorMark instead of start offsets. Semantic searches ignore it,
+     * and hybrid searches with a cursor use the single-query kNN boost rather than fusion. {@code vectorFields}
+     * chooses the vector fields and weights for semantic and hybrid searches (e.g. {@code {"name": 1.0,
+     * "industry": 0.5}}); null or no known field uses {@code search.vector.fields}.
+     */
+    public ComprehensiveSearchResponse comprehensiveSearch(
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int page,
+            int pageSize,
+            List<String> returnFields,
+            String searchType,
+            String cursor,
+            Map<String, Double> vectorFields
+    ) throws Exception {
+        long startNanos = System.nanoTime();
+        // Whitelisted fields, or the endpoint default; never the embedding vectors
+        FieldProjection.Endpoint endpoint = "semantic".equals(searchType)
+                ? FieldProjection.Endpoint.SEMANTIC : FieldProjection.Endpoint.COMPREHENSIVE;
+        List<String> fields = fieldProjection.resolve(endpoint, returnFields);
+        Map<String, Double> vectors = resolveVectorFields(vectorFields);
+        String cacheKey = SearchResponseCache.key(query, filters, facetFields, sortField, sortDirection, page, pageSize, fields, searchType, cursor,
+                "lexical".equals(searchType) ? null : vectors,
+                "lexical".equals(searchType) ? embeddingStore.getSnapshotVersion() : 0);
+        ComprehensiveSearchResponse response = searchResponseCache.get(cacheKey, () ->
+                executeComprehensiveSearch(query, filters, facetFields, sortField, sortDirection, page, pageSize, fields, searchType, cursor, vectors));
+
+        if (response.getSearchMetadata() != null && "hit".equals(response.getSearchMetadata().getCacheStatus())) {
+            // A cached response carries the timings of the search that produced it; report the lookup instead
+            ComprehensiveSearchResponse.StageTimings timings = new ComprehensiveSearchResponse.StageTimings();
+            timings.setTotalNanos(System.nanoTime() - startNanos);
+            ComprehensiveSearchResponse.QueryInfo queryInfo = response.getQueryInfo().copy();
+            queryInfo.setTimings(timings);
+            queryInfo.setExecutionTime(TimeUnit.NANOSECONDS.toMillis(timings.getTotalNanos()));
+            response.setQueryInfo(queryInfo);
+        }
+        return response;
+    }
+
+    private ComprehensiveSearchResponse executeComprehensiveSearch(
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int page,
+            int pageSize,
+            List<String> returnFields,
+            String searchType,
+            String cursor,
+            Map<String, Double> vectorFields
+    ) throws Exception {
+        long startNanos = System.nanoTime();
+        ComprehensiveSearchResponse.StageTimings timings = new ComprehensiveSearchResponse.StageTimings();
         
-        List<Map<String, Object>> allDocuments = new ArrayList<>();
         int lexicalResultsCount = 0;
         int semanticResultsCount = 0;
-        long totalResults = 0;
         
         // Parse natural language query to extract entities and build filters
-        QueryUnderstandingService.ParsedQuery parsedQuery = queryUnderstandingService.parseQuery(query);
-        System.out.println("=== QUERY UNDERSTANDING DEBUG ===");
-        System.out.println("Original query: " + parsedQuery.getOriginalQuery());
-        System.out.println("Cleaned query: " + parsedQuery.getCleanedQuery());
-        System.out.println("Detected industries: " + parsedQuery.getIndustries());
-        System.out.println("Detected locations: " + parsedQuery.getLocations());
+        QueryUnderstandingService.ParsedQuery parsedQuery = understandQuery(query);
         
         // Extract filters from parsed query and merge with existing filters
         Map<String, Object> intelligentFilters = queryUnderstandingService.buildFiltersFromParsedQuery(parsedQuery);
         Map<String, Object> mergedFilters = mergeFilters(filters, intelligentFilters);
-        
-        // Use cleaned query if entities were detected, otherwise use original query
-        String effectiveQuery = parsedQuery.hasIndustryFilters() || parsedQuery.hasLocationFilters() 
-            ? parsedQuery.getCleanedQuery() 
-            : query;
+        String effectiveQuery = effectiveQuery(query, parsedQuery);
             
-        System.out.println("Effective query: " + effectiveQuery);
-        System.out.println("Merged filters: " + mergedFilters);
+        log.debug("Effective query: '{}', merged filters: {}", effectiveQuery, mergedFilters);
+        timings.setQueryUnderstandingNanos(System.nanoTime() - startNanos);
         
         // Use unified Solr query for all search types
-        ComprehensiveSearchResponse response = performUnifiedSolrSearch(effectiveQuery, mergedFilters, facetFields, sortField, sortDirection, page, pageSize, returnFields, searchType);
+        ComprehensiveSearchResponse response = performUnifiedSolrSearch(effectiveQuery, mergedFilters, facetFields, sortField, sortDirection, page, pageSize, returnFields, searchType, cursor, vectorFields, timings);
         
+        long postProcessingStart = System.nanoTime();
         // Analyze results to categorize them as lexical or semantic
         for (Map<String, Object> doc : response.getDocuments()) {
-            Float score = doc.get("score") != null ? ((Number) doc.get("score")).floatValue() : 0f;
-            
             // Determine if result came from semantic or lexical matching based on scoring and fields
             String resultSearchType = determineResultSearchType(doc, query, searchType);
             doc.put("searchType", resultSearchType);
             
             if ("semantic".equals(resultSearchType)) {
                 semanticResultsCount++;
+            } else if ("hybrid".equals(resultSearchType)) {
+                // Returned by both retrievers
+                lexicalResultsCount++;
+                semanticResultsCount++;
             } else {
                 lexicalResultsCount++;
             }
@@ -225,17 +354,112 @@ public class SearchService {
         // Update search metadata
         ComprehensiveSearchResponse.SearchMetadata searchMetadata = 
             new ComprehensiveSearchResponse.SearchMetadata(searchType, lexicalResultsCount, semanticResultsCount);
+        // Documents returned by both hybrid retrievers are in both counts but only once in the total
+        searchMetadata.setTotalResultsCount(response.getDocuments().size());
+        searchMetadata.setDegraded(timings.isDegraded());
+        
+        long endNanos = System.nanoTime();
+        timings.setPostProcessingNanos(endNanos - postProcessingStart);
+        timings.setTotalNanos(endNanos - startNanos);
+        ComprehensiveSearchResponse.QueryInfo queryInfo = response.getQueryInfo();
+        queryInfo.setTimings(timings);
+        queryInfo.setExecutionTime(TimeUnit.NANOSECONDS.toMillis(timings.getTotalNanos()));
+        searchMetrics.recordStageTimings(searchType, timings);
         
         return new ComprehensiveSearchResponse(
             response.getDocuments(), 
             response.getTotalResults(), 
             response.getFacets(), 
             response.getPagination(), 
-            response.getQueryInfo(),
+            queryInfo,
             searchMetadata
         );
     }
     
+    /**
+     * Stream every document matching the query and filters to {@code sink}, after the same query understanding
+     * as a comprehensive search. Documents are fetched in cursorMark batches of {@code search.export.batch-size}
+     * and the next batch is only requested once the sink has taken the current one, so memory stays constant
+     * and a slow client slows the export down. Stops after {@code limit} documents when it is positive.
+     *
+     * @return the number of documents written
+     */
+    public long export(
+            String query,
+            Map<String, Object> filters,
+            String sortField,
+            String sortDirection,
+            List<String> returnFields,
+            long limit,
+            DocumentSink sink
+    ) throws Exception {
+        QueryUnderstandingService.ParsedQuery parsedQuery = understandQuery(query);
+        Map<String, Object> mergedFilters = mergeFilters(filters, queryUnderstandingService.buildFiltersFromParsedQuery(parsedQuery));
+        String effectiveQuery = effectiveQuery(query, parsedQuery);
+        List<String> fields = fieldProjection.resolve(FieldProjection.Endpoint.COMPREHENSIVE, returnFields);
+        // Relevance order means nothing in a dump; index order is the cheapest stable order for the cursor
+        String exportSort = sortField != null && !sortField.trim().isEmpty() ? sortField : "id";
+        
+        long written = 0;
+        String cursor = "*";
+        while (limit <= 0 || written < limit) {
+            int rows = limit > 0 ? (int) Math.min(exportBatchSize, limit - written) : exportBatchSize;
+            SelectRequest solrQuery = buildSolrQuery(effectiveQuery, mergedFilters, null, exportSort, sortDirection, 0, rows,
+                    fields, "lexical", null, cursor, new ComprehensiveSearchResponse.StageTimings());
+            logSolrQuery("Export", solrQuery);
+            SolrResponseParser.SelectResponse batch = solrClient.select(solrQuery);
+            for (Map<String, Object> doc : batch.getDocs()) {
+                sink.accept(doc);
+                written++;
+            }
+            sink.flush();
+            
+            String nextCursor = batch.getNextCursorMark();
+            if (batch.getDocs().isEmpty() || nextCursor == null || nextCursor.equals(cursor)) {
+                break;
+            }
+            cursor = nextCursor;
+        }
+        return written;
+    }
+
+    /**
+     * Receives exported documents in order; {@link #flush()} is called after each batch
+     */
+    public interface DocumentSink {
+        void accept(Map<String, Object> doc) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    /**
+     * The requested vector fields, or {@code search.vector.fields}, or the name vector alone
+     */
+    private Map<String, Double> resolveVectorFields(Map<String, Double> requested) {
+        Map<String, Double> vectorFields = SemanticSearchService.resolveVectorFields(requested);
+        if (vectorFields.isEmpty()) {
+            vectorFields = SemanticSearchService.parseVectorFields(defaultVectorFields);
+        }
+        return vectorFields.isEmpty() ? Map.of(SemanticSearchService.NAME_VECTOR_FIELD, 1.0) : vectorFields;
+    }
+
+    private QueryUnderstandingService.ParsedQuery understandQuery(String query) {
+        QueryUnderstandingService.ParsedQuery parsedQuery = queryUnderstandingService.parseQuery(query);
+        searchMetrics.recordQueryUnderstanding(parsedQuery);
+        log.debug("Query understanding: original='{}' cleaned='{}' industries={} locations={}", parsedQuery.getOriginalQuery(),
+                parsedQuery.getCleanedQuery(), parsedQuery.getIndustries(), parsedQuery.getLocations());
+        return parsedQuery;
+    }
+
+    /**
+     * The cleaned query if entities were detected (they are now filters), otherwise the original query
+     */
+    private static String effectiveQuery(String query, QueryUnderstandingService.ParsedQuery parsedQuery) {
+        return parsedQuery.hasIndustryFilters() || parsedQuery.hasLocationFilters()
+            ? parsedQuery.getCleanedQuery()
+            : query;
+    }
+    
     private ComprehensiveSearchResponse performUnifiedSolrSearch(
             String query,
             Map<String, Object> filters,
@@ -245,15 +469,127 @@ public class SearchService {
             int page,
             int pageSize,
             List<String> returnFields,
-            String searchType
+            String searchType,
+            String cursor,
+            Map<String, Double> vectorFields,
+            ComprehensiveSearchResponse.StageTimings timings
     ) throws Exception {
         // For pure semantic search, use SemanticSearchService with actual vector embeddings
         if ("semantic".equals(searchType) && semanticSearchService != null && query != null && !query.trim().isEmpty()) {
-            return performSemanticSearch(query, filters, facetFields, sortField, sortDirection, page, pageSize, returnFields);
+            return performSemanticSearch(query, filters, facetFields, sortField, sortDirection, page, pageSize, returnFields, vectorFields, timings);
+        }
+        
+        // Fusion ranks its own candidate list, so cursor paging stays on the single boosted query
+        HybridFusion.Method fusion = HybridFusion.Method.parse(hybridFusion);
+        if ("hybrid".equals(searchType) && fusion != null && cursor == null && semanticSearchService != null
+                && query != null && !query.trim().isEmpty()) {
+            return performHybridSearch(query, filters, facetFields, sortField, sortDirection, page, pageSize, returnFields, vectorFields, fusion, timings);
+        }
+        
+        // Re-ranking reorders the top N, rounded up to whole pages so that the first page past them starts
+        // where the re-ranked window ends; later pages, sorts and cursors keep Solr's lexical order
+        long rerankWindow = rerankWindow(pageSize);
+        if ("lexical".equals(searchType) && cursor == null && (sortField == null || sortField.trim().isEmpty())
+                && embeddingStore.isReady() && semanticSearchService != null && query != null && !query.trim().isEmpty()
+                && (long) (page + 1) * pageSize <= rerankWindow) {
+            return performRerankedSearch(query, filters, facetFields, page, pageSize, (int) rerankWindow, returnFields, timings);
         }
         
-        String SOLR_URL = "http://localhost:8983/solr/company/select";
-        StringBuilder solrQuery = new StringBuilder(SOLR_URL + "?wt=json");
+        SelectRequest solrQuery = buildSolrQuery(query, filters, facetFields, sortField, sortDirection, page, pageSize, returnFields, searchType,
+                vectorFields, cursor, timings);
+
+        logSolrQuery("Comprehensive search", solrQuery);
+        // Execute query; the body is parsed as it streams in, so the round trip ends at the response headers
+        long solrStart = System.nanoTime();
+        SolrResponseParser.SelectResponse solrResponse = solrClient.select(solrQuery);
+        long parseStart = solrResponse.getResponseStartNanos();
+        timings.setSolrRoundTripNanos(parseStart - solrStart);
+        timings.setParseNanos(System.nanoTime() - parseStart);
+
+        ComprehensiveSearchResponse response = mapSolrResponse(solrResponse, query, filters, facetFields, sortField, sortDirection, page, pageSize, timings);
+        if (cursor != null) {
+            // Solr returns the same mark once the results are exhausted
+            String nextCursor = solrResponse.getNextCursorMark();
+            boolean hasNext = nextCursor != null && !nextCursor.equals(cursor);
+            response.getPagination().setNextCursor(hasNext ? nextCursor : null);
+            response.getPagination().setHasNext(hasNext);
+            response.getPagination().setHasPrevious(false);
+            // page is ignored, and cached cursor pages are shared by requests with any page
+            response.getPagination().setCurrentPage(0);
+        }
+        return response;
+    }
+
+    /**
+     * Lexical search with the top {@code window} matches re-ranked by the similarity of their
+     * {@link EmbeddingStore} vectors to the query embedding; no vectors are fetched from Solr. The candidates
+     * are fetched on the hybrid executor while the query is embedded. Totals and facets are Solr's. If the
+     * embedding fails the candidates stay in lexical order.
+     */
+    private ComprehensiveSearchResponse performRerankedSearch(
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            int page,
+            int pageSize,
+            int window,
+            List<String> returnFields,
+            ComprehensiveSearchResponse.StageTimings timings
+    ) throws Exception {
+        SelectRequest solrQuery = buildSolrQuery(query, filters, facetFields, null, null, 0, window, legFields(returnFields),
+                "lexical", null, null, timings);
+        logSolrQuery("Re-rank candidates", solrQuery);
+        CompletableFuture<SolrLeg> candidatesFuture = submitLeg(solrQuery);
+        
+        long embeddingStart = System.nanoTime();
+        float[] queryEmbedding = semanticSearchService.generateEmbedding(query);
+        timings.setEmbeddingNanos(System.nanoTime() - embeddingStart);
+        
+        SolrLeg leg = joinLeg(candidatesFuture);
+        SolrResponseParser.SelectResponse solrResponse = leg.response;
+        timings.setDegraded(queryEmbedding.length == 0);
+        List<Map<String, Object>> candidates = queryEmbedding.length > 0
+                ? embeddingStore.rerank(queryEmbedding, solrResponse.getDocs())
+                : solrResponse.getDocs();
+        ComprehensiveSearchResponse response = mapSolrResponse(solrResponse, query, filters, facetFields, null, null,
+                page, pageSize, timings);
+        recordLegTimings(timings, Collections.singletonList(leg));
+        response.setDocuments(pageOf(candidates, page, pageSize));
+        return response;
+    }
+
+    /**
+     * Number of lexical matches re-ranked for pages of {@code pageSize}: {@code search.rerank.top-n} rounded
+     * up to whole pages
+     */
+    private long rerankWindow(int pageSize) {
+        if (pageSize <= 0) {
+            return 0;
+        }
+        return ((long) rerankTopN + pageSize - 1) / pageSize * pageSize;
+    }
+
+    /**
+     * Solr /select request for a lexical, boosted hybrid or fallback semantic search.
+     * Hybrid searches embed the query here, recording the time in {@code timings}. With a {@code cursor},
+     * the page is selected by cursorMark and the sort gets an id tiebreak, as cursor paging requires.
+     */
+    SelectRequest buildSolrQuery(
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int page,
+            int pageSize,
+            List<String> returnFields,
+            String searchType,
+            Map<String, Double> vectorFields,
+            String cursor,
+            ComprehensiveSearchResponse.StageTimings timings
+    ) throws Exception {
+        StringBuilder solrQuery = new StringBuilder("/select?wt=json");
+        float[] boostEmbedding = null;
         
         // Configure query parser and fields based on search type
         if ("semantic".equals(searchType)) {
@@ -275,7 +611,7 @@ public class SearchService {
             
             if ("hybrid".equals(searchType)) {
                 // Hybrid search using Boolean Query Parser (Union approach)
-                buildHybridQuery(solrQuery, encodedQuery);
+                boostEmbedding = buildHybridQuery(solrQuery, query, encodedQuery, timings);
             } else if ("semantic".equals(searchType) && hasVectorFields()) {
                 // Vector search query
                 buildVectorQuery(solrQuery, encodedQuery);
@@ -293,7 +629,41 @@ public class SearchService {
             solrQuery.append("&q=*:*");
         }
 
-        // Build filters
+        appendFilters(solrQuery, filters);
+
+        // Pagination
+        if (cursor != null) {
+            appendCursorSort(solrQuery, sortField, sortDirection);
+            solrQuery.append("&cursorMark=").append(URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+        } else {
+            appendSort(solrQuery, sortField, sortDirection);
+            solrQuery.append("&start=").append(page * pageSize);
+        }
+        solrQuery.append("&rows=").append(pageSize);
+
+        // Return fields
+        if (returnFields != null && !returnFields.isEmpty()) {
+            solrQuery.append("&fl=").append(String.join(",", returnFields));
+        }
+
+        appendFacets(solrQuery, facetFields);
+
+        SelectRequest request = new SelectRequest(solrQuery.toString());
+        if (boostEmbedding != null) {
+            // One kNN boost query per vector field (the name vector if none are given), scaled by its weight
+            Map<String, Double> boostFields = vectorFields != null ? vectorFields : Map.of(SemanticSearchService.NAME_VECTOR_FIELD, 1.0);
+            for (Map.Entry<String, Double> field : boostFields.entrySet()) {
+                semanticSearchService.vectorIndex(field.getKey(), filters)
+                        .selectNearest(request, "bq", field.getKey(), boostEmbedding, 10, filters, 2.0 * field.getValue());
+            }
+        }
+        return request;
+    }
+
+    /**
+     * fq parameters for the merged filters: lists become OR clauses, {from, to} maps become ranges
+     */
+    private void appendFilters(StringBuilder solrQuery, Map<String, Object> filters) {
         if (filters != null && !filters.isEmpty()) {
             for (Map.Entry<String, Object> filter : filters.entrySet()) {
                 String field = filter.getKey();
@@ -327,23 +697,30 @@ public class SearchService {
                 }
             }
         }
+    }
 
-        // Build sorting
+    private void appendSort(StringBuilder solrQuery, String sortField, String sortDirection) {
         if (sortField != null && !sortField.trim().isEmpty()) {
             String direction = (sortDirection != null && sortDirection.equalsIgnoreCase("desc")) ? "desc" : "asc";
             solrQuery.append("&sort=").append(sortField).append(" ").append(direction);
         }
+    }
 
-        // Pagination
-        solrQuery.append("&start=").append(page * pageSize);
-        solrQuery.append("&rows=").append(pageSize);
-
-        // Return fields
-        if (returnFields != null && !returnFields.isEmpty()) {
-            solrQuery.append("&fl=").append(String.join(",", returnFields));
+    /**
+     * cursorMark needs a total order: the requested sort, or relevance, with the unique key as tiebreak
+     */
+    private void appendCursorSort(StringBuilder solrQuery, String sortField, String sortDirection) {
+        String direction = (sortDirection != null && sortDirection.equalsIgnoreCase("desc")) ? "desc" : "asc";
+        if (sortField == null || sortField.trim().isEmpty()) {
+            solrQuery.append("&sort=score desc,id asc");
+        } else if ("id".equals(sortField.trim())) {
+            solrQuery.append("&sort=id ").append(direction);
+        } else {
+            solrQuery.append("&sort=").append(sortField).append(" ").append(direction).append(",id asc");
         }
+    }
 
-        // Faceting
+    private void appendFacets(StringBuilder solrQuery, List<String> facetFields) {
         if (facetFields != null && !facetFields.isEmpty()) {
             solrQuery.append("&facet=true");
             for (String field : facetFields) {
@@ -352,55 +729,33 @@ public class SearchService {
             solrQuery.append("&facet.limit=100");
             solrQuery.append("&facet.mincount=1");
         }
+    }
 
-        // Log the Solr query for debugging
-        System.out.println("=== COMPREHENSIVE SEARCH SOLR QUERY DEBUG ===");
-        System.out.println("Full Solr Query URL: " + solrQuery.toString());
-        // Execute query
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<String> response = restTemplate.exchange(
-                solrQuery.toString(), 
-                HttpMethod.GET, 
-                new HttpEntity<>(new HttpHeaders()), 
-                String.class
-        );
-
-        // Parse response
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(response.getBody());
+    /**
+     * Map a parsed Solr /select response to a search response; Solr's QTime is recorded in {@code timings}.
+     */
+    ComprehensiveSearchResponse mapSolrResponse(
+            SolrResponseParser.SelectResponse solrResponse,
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int page,
+            int pageSize,
+            ComprehensiveSearchResponse.StageTimings timings
+    ) {
+        timings.setSolrQTimeNanos(TimeUnit.MILLISECONDS.toNanos(solrResponse.getQTime()));
         
-        // Extract documents
-        List<Map<String, Object>> documents = new ArrayList<>();
-        JsonNode docs = root.path("response").path("docs");
-        for (JsonNode doc : docs) {
-            Map<String, Object> docMap = mapper.convertValue(doc, Map.class);
-            
-            // Remove large vector fields to reduce response size
-            docMap.entrySet().removeIf(entry -> 
-                entry.getKey().endsWith("_embedding_vector"));
-            
-            documents.add(docMap);
-        }
+        // Embedding vectors were already skipped by the parser
+        List<Map<String, Object>> documents = solrResponse.getDocs();
+        long totalResults = solrResponse.getNumFound();
 
-        // Extract total results
-        long totalResults = root.path("response").path("numFound").asLong();
-
-        // Extract facets
+        // Extract facets for the requested fields
         Map<String, Map<String, Integer>> facets = new HashMap<>();
         if (facetFields != null && !facetFields.isEmpty()) {
-            JsonNode facetFields2 = root.path("facet_counts").path("facet_fields");
             for (String field : facetFields) {
-                JsonNode fieldFacets = facetFields2.path(field);
-                Map<String, Integer> fieldValues = new HashMap<>();
-                
-                for (int i = 0; i < fieldFacets.size(); i += 2) {
-                    if (i + 1 < fieldFacets.size()) {
-                        String facetValue = fieldFacets.get(i).asText();
-                        int count = fieldFacets.get(i + 1).asInt();
-                        fieldValues.put(facetValue, count);
-                    }
-                }
-                facets.put(field, fieldValues);
+                facets.put(field, solrResponse.getFacetFields().getOrDefault(field, new HashMap<>()));
             }
         }
 
@@ -408,17 +763,39 @@ public class SearchService {
         ComprehensiveSearchResponse.PaginationInfo pagination = 
                 new ComprehensiveSearchResponse.PaginationInfo(page, pageSize, totalResults);
 
-        // Create query info
+        // Create query info; execution time and timings are filled in by the caller once post-processing is done
         Map<String, Object> queryFilters = filters != null ? new HashMap<>(filters) : new HashMap<>();
-        long executionTime = System.currentTimeMillis() - System.currentTimeMillis();  // Will be corrected by caller
         ComprehensiveSearchResponse.QueryInfo queryInfo = 
                 new ComprehensiveSearchResponse.QueryInfo(query, queryFilters, 
-                        sortField + " " + (sortDirection != null ? sortDirection : "asc"), executionTime);
+                        sortField + " " + (sortDirection != null ? sortDirection : "asc"), 0);
 
         return new ComprehensiveSearchResponse(documents, totalResults, facets, pagination, queryInfo, null);
     }
     
-    private String determineResultSearchType(Map<String, Object> doc, String query, String requestedSearchType) {
+    /**
+     * Full URL for requests sent with X-Debug, otherwise a sampled, truncated summary with vectors collapsed
+     */
+    private void logSolrQuery(String label, CharSequence solrQuery) {
+        if (RequestLogging.isDebug()) {
+            log.info("{} Solr query: {}{}", label, solrClient.getBaseUrl(), solrQuery);
+        } else if (log.isInfoEnabled()) {
+            log.info(RequestLogging.SAMPLED, "{} Solr query: {}", label, RequestLogging.lazySummary(solrQuery));
+        }
+    }
+
+    /**
+     * As above, with the JSON body (vectors included) for requests sent with X-Debug
+     */
+    private void logSolrQuery(String label, SelectRequest solrQuery) {
+        if (RequestLogging.isDebug()) {
+            log.info("{} Solr query: {}{}{}", label, solrClient.getBaseUrl(), solrQuery.getPathAndQuery(),
+                    solrQuery.hasBody() ? " body: " + solrQuery.body() : "");
+        } else if (log.isInfoEnabled()) {
+            log.info(RequestLogging.SAMPLED, "{} Solr query: {}", label, RequestLogging.lazySummary(solrQuery));
+        }
+    }
+    
+    String determineResultSearchType(Map<String, Object> doc, String query, String requestedSearchType) {
         if ("lexical".equals(requestedSearchType)) {
             return "lexical";
         }
@@ -429,6 +806,13 @@ public class SearchService {
         
         // For hybrid search, analyze the document to determine how it matched
         if ("hybrid".equals(requestedSearchType)) {
+            // Fused results know which retrievers returned them
+            String provenance = HybridFusion.provenance(doc);
+            if (provenance != null) {
+                return provenance;
+            }
+            
+            // kNN boost mode: a single Solr score, so the match type can only be estimated
             Float score = doc.get("score") != null ? ((Number) doc.get("score")).floatValue() : 0f;
             String name = doc.get("name") != null ? doc.get("name").toString().toLowerCase() : "";
             String industry = doc.get("industry") != null ? doc.get("industry").toString().toLowerCase() : "";
@@ -437,18 +821,13 @@ public class SearchService {
             if (query != null) {
                 String lowerQuery = query.toLowerCase();
                 
-                // Improved hybrid classification logic:
-                // 1. Check for exact matches in primary fields (name, industry)
-                // 2. Analyze score patterns to detect semantic contributions
-                // 3. Use alternating classification to show both types
+                // Check for exact matches in primary fields (name, industry), then analyze score patterns
+                // to detect semantic contributions
                 
                 boolean hasExactNameMatch = name.contains(lowerQuery);
                 boolean hasExactIndustryMatch = industry.contains(lowerQuery);
                 boolean hasLocalityMatch = locality.contains(lowerQuery);
                 
-                // For hybrid search, we want to show a mix of both types
-                // Use score-based classification with more balanced logic
-                
                 // Very high scores (>3.0) often indicate strong semantic similarity
                 if (score > 3.0f) {
                     return "semantic";
@@ -473,13 +852,6 @@ public class SearchService {
                 if (hasLocalityMatch && !hasExactNameMatch && !hasExactIndustryMatch && score > 0.5f) {
                     return "semantic";
                 }
-                
-                // Use document position for alternating classification (simple demo)
-                // This ensures we show both types in results
-                String docId = doc.get("id") != null ? doc.get("id").toString() : "";
-                if (docId.hashCode() % 2 == 0) {
-                    return "semantic";
-                }
             }
             
             // Default to lexical for hybrid search
@@ -558,19 +930,24 @@ public class SearchService {
     }
     
     /**
-     * Build hybrid search query using Boolean Query Parser (Union approach)
-     * Following Sease.io documentation: combines lexical and vector searches
+     * Build the kNN boost hybrid query ({@code search.hybrid.fusion=boost}, and cursor paging): the lexical
+     * edismax query, to which the caller adds the query's nearest neighbours as boost queries.
+     * Returns the query embedding, or null if there is none and the search is lexical only.
      */
-    private void buildHybridQuery(StringBuilder solrQuery, String encodedQuery) throws Exception {
+    private float[] buildHybridQuery(StringBuilder solrQuery, String query, String encodedQuery,
+                                     ComprehensiveSearchResponse.StageTimings timings) throws Exception {
         // Generate vector embedding for the query using SemanticSearchService
         float[] queryEmbedding = null;
         if (semanticSearchService != null) {
+            long embeddingStart = System.nanoTime();
             try {
-                queryEmbedding = semanticSearchService.generateEmbedding(encodedQuery);
+                // Embed the raw query text so hybrid and semantic requests share cached embeddings
+                queryEmbedding = semanticSearchService.generateEmbedding(query);
             } catch (Exception e) {
-                System.err.println("Failed to generate embedding for hybrid search: " + e.getMessage());
+                log.warn("Failed to generate embedding for hybrid search: {}", e.getMessage());
                 // Fall back to lexical-only search if embedding generation fails
             }
+            timings.setEmbeddingNanos(System.nanoTime() - embeddingStart);
         }
         
         if (queryEmbedding != null && queryEmbedding.length > 0) {
@@ -578,38 +955,288 @@ public class SearchService {
             // Since Boolean Query Parser has issues with nested local parameters,
             // we'll use DisMax with boost queries instead
             
-            // Build vector query component with actual embedding
-            StringBuilder vectorQuery = new StringBuilder();
-            vectorQuery.append("{!knn f=name_embedding_vector topK=10}[");
-            for (int i = 0; i < queryEmbedding.length; i++) {
-                if (i > 0) vectorQuery.append(",");
-                vectorQuery.append(queryEmbedding[i]);
-            }
-            vectorQuery.append("]");
-            
             // Use DisMax approach for hybrid search
-            solrQuery.append("&defType=edismax");
-            solrQuery.append("&qf=name^3.0 industry^2.0 locality^1.0");
-            solrQuery.append("&pf=name^4.0 industry^3.0");
-            solrQuery.append("&q=").append(encodedQuery);
-            solrQuery.append("&bq=").append(URLEncoder.encode(vectorQuery.toString() + "^2.0", StandardCharsets.UTF_8));
-            
-            System.out.println("=== HYBRID SEARCH DEBUG ===");
-            System.out.println("Lexical query: " + encodedQuery);
-            System.out.println("Vector query dimension: " + queryEmbedding.length);
-            System.out.println("Vector boost query: " + vectorQuery.toString());
+            appendHybridLexicalQuery(solrQuery, encodedQuery);
+            log.debug("Hybrid query: lexical '{}' boosted by {}-dim vector", query, queryEmbedding.length);
+            return queryEmbedding;
+        }
+        
+        // Fallback to lexical-only search if no vector embedding available
+        timings.setDegraded(semanticSearchService != null);
+        appendHybridLexicalQuery(solrQuery, encodedQuery);
+        log.debug("Hybrid search falling back to lexical-only, no embedding available");
+        return null;
+    }
+
+    /**
+     * The lexical side of a hybrid search: edismax weighted towards name, then industry, then locality
+     */
+    private void appendHybridLexicalQuery(StringBuilder solrQuery, String encodedQuery) {
+        solrQuery.append("&defType=edismax");
+        solrQuery.append("&qf=name^3.0 industry^2.0 locality^1.0");
+        solrQuery.append("&pf=name^4.0 industry^3.0");
+        solrQuery.append("&q=").append(encodedQuery);
+    }
+
+    /**
+     * Hybrid search as two retrievals fused in-process: the top {@code search.hybrid.lexical-depth} edismax
+     * matches, fetched on the hybrid executor, and the {@code search.hybrid.vector-depth} nearest neighbours
+     * (see {@link #vectorCandidates}), both narrowed by the filters. Pages, totals and any sort are over the
+     * fused candidates and facets come from the lexical leg. If the embedding or every kNN query fails the
+     * lexical results are served alone; if the lexical query fails the vector results are, without facets. Round trip, QTime and parse time are those of the slowest leg.
+     */
+    private ComprehensiveSearchResponse performHybridSearch(
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int page,
+            int pageSize,
+            List<String> returnFields,
+            Map<String, Double> vectorFields,
+            HybridFusion.Method fusion,
+            ComprehensiveSearchResponse.StageTimings timings
+    ) throws Exception {
+        List<String> legFields = legFields(returnFields);
+        
+        String lexicalQuery = buildHybridLexicalSolrQuery(query, filters, facetFields, legFields);
+        logSolrQuery("Hybrid lexical", lexicalQuery);
+        CompletableFuture<SolrLeg> lexicalFuture = submitLeg(new SelectRequest(lexicalQuery));
+        
+        long embeddingStart = System.nanoTime();
+        float[] queryEmbedding = semanticSearchService.generateEmbedding(query);
+        timings.setEmbeddingNanos(System.nanoTime() - embeddingStart);
+        
+        List<SolrLeg> legs = new ArrayList<>();
+        List<Map<String, Object>> vectorDocs = Collections.emptyList();
+        boolean vectorLeg = false;
+        if (queryEmbedding.length > 0) {
+            try {
+                vectorDocs = vectorCandidates(queryEmbedding, vectorFields, hybridVectorDepth, filters, null, legFields,
+                        "Hybrid vector", legs);
+                vectorLeg = true;
+                timings.setDegraded(legs.size() < vectorFields.size());
+            } catch (Exception e) {
+                log.warn("Hybrid vector leg failed, using lexical results only: {}", e.getMessage());
+                timings.setDegraded(true);
+            }
         } else {
-            // Fallback to lexical-only search if no vector embedding available
-            solrQuery.append("&q=").append(encodedQuery);
-            solrQuery.append("&defType=edismax&qf=name^3.0 industry^2.0 locality^1.0");
-            solrQuery.append("&pf=name^4.0 industry^3.0");
-            System.out.println("=== HYBRID SEARCH FALLBACK ===");
-            System.out.println("Using lexical-only search due to embedding unavailability");
+            log.debug("Hybrid search falling back to lexical-only, no embedding available");
+            timings.setDegraded(true);
+        }
+        
+        // Either leg may fail alone and the other's results are served; only if both fail does the search
+        SolrResponseParser.SelectResponse lexicalResponse;
+        try {
+            SolrLeg lexicalLeg = joinLeg(lexicalFuture);
+            legs.add(lexicalLeg);
+            lexicalResponse = lexicalLeg.response;
+        } catch (Exception e) {
+            if (!vectorLeg) {
+                throw e;
+            }
+            log.warn("Hybrid lexical leg failed, using vector results only: {}", e.getMessage());
+            timings.setDegraded(true);
+            lexicalResponse = new SolrResponseParser.SelectResponse();
+        }
+        
+        List<Map<String, Object>> fused = HybridFusion.fuse(lexicalResponse.getDocs(), vectorDocs, fusion,
+                hybridRrfK, hybridLexicalWeight, hybridVectorWeight);
+        if (sortField != null && !sortField.trim().isEmpty()) {
+            HybridFusion.sort(fused, sortField.trim(), "desc".equalsIgnoreCase(sortDirection));
+        }
+        
+        ComprehensiveSearchResponse response = mapSolrResponse(lexicalResponse, query, filters, facetFields,
+                sortField, sortDirection, page, pageSize, timings);
+        recordLegTimings(timings, legs);
+        return pageCandidates(response, fused, page, pageSize);
+    }
+
+    /**
+     * Nearest neighbours of the embedding in each of the weighted vector fields, one kNN query per field run
+     * concurrently (the first on the request thread). Several fields are merged by id with
+     * {@link HybridFusion#fuseFields}. Facets, if requested, are counted by every field's query. Each
+     * successful query is added to {@code legs}; a failed field is left out, and only if every field
+     * fails does the search fail.
+     */
+    private List<Map<String, Object>> vectorCandidates(
+            float[] queryEmbedding,
+            Map<String, Double> vectorFields,
+            int topK,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            List<String> returnFields,
+            String label,
+            List<SolrLeg> legs
+    ) throws Exception {
+        List<String> fields = new ArrayList<>(vectorFields.keySet());
+        List<SelectRequest> queries = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            SelectRequest solrQuery = buildKnnSolrQuery(fields.get(i), queryEmbedding, topK, filters, facetFields,
+                    null, null, 0, topK, returnFields);
+            logSolrQuery(label, solrQuery);
+            queries.add(solrQuery);
+        }
+        
+        // The other fields go to the executor first so that they overlap with the first
+        List<CompletableFuture<SolrLeg>> futures = new ArrayList<>(Collections.nCopies(fields.size(), null));
+        for (int i = 1; i < fields.size(); i++) {
+            futures.set(i, submitLeg(queries.get(i)));
+        }
+        futures.set(0, runLegHere(queries.get(0)));
+        
+        Map<String, List<Map<String, Object>>> resultsByField = new LinkedHashMap<>();
+        Exception failure = null;
+        for (int i = 0; i < fields.size(); i++) {
+            try {
+                SolrLeg leg = joinLeg(futures.get(i));
+                legs.add(leg);
+                resultsByField.put(fields.get(i), leg.response.getDocs());
+            } catch (Exception e) {
+                if (fields.size() > 1) {
+                    log.warn("kNN query on {} failed, merging the other vector fields: {}", fields.get(i), e.getMessage());
+                }
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (resultsByField.isEmpty()) {
+            throw failure;
+        }
+        return fields.size() == 1 ? resultsByField.get(fields.get(0)) : HybridFusion.fuseFields(resultsByField, vectorFields);
+    }
+
+    /**
+     * Fields for a candidate query: candidates are merged by id and ranked on their scores
+     */
+    private static List<String> legFields(List<String> returnFields) {
+        List<String> legFields = returnFields != null ? new ArrayList<>(returnFields) : new ArrayList<>();
+        if (!legFields.isEmpty()) {
+            if (!legFields.contains("id")) legFields.add("id");
+            if (!legFields.contains("score")) legFields.add("score");
+        }
+        return legFields;
+    }
+
+    /**
+     * Solr times of concurrent legs: each is the slowest leg's
+     */
+    private static void recordLegTimings(ComprehensiveSearchResponse.StageTimings timings, List<SolrLeg> legs) {
+        long roundTrip = 0;
+        long parse = 0;
+        long qTime = 0;
+        for (SolrLeg leg : legs) {
+            roundTrip = Math.max(roundTrip, leg.roundTripNanos);
+            parse = Math.max(parse, leg.parseNanos);
+            qTime = Math.max(qTime, leg.response.getQTime());
+        }
+        timings.setSolrRoundTripNanos(roundTrip);
+        timings.setParseNanos(parse);
+        timings.setSolrQTimeNanos(TimeUnit.MILLISECONDS.toNanos(qTime));
+    }
+
+    /**
+     * One page of an in-process ranked candidate list; totals and pagination describe the whole list
+     */
+    private static ComprehensiveSearchResponse pageCandidates(ComprehensiveSearchResponse response,
+                                                              List<Map<String, Object>> candidates, int page, int pageSize) {
+        response.setDocuments(pageOf(candidates, page, pageSize));
+        response.setTotalResults(candidates.size());
+        response.setPagination(new ComprehensiveSearchResponse.PaginationInfo(page, pageSize, candidates.size()));
+        return response;
+    }
+
+    /**
+     * Documents of one page of an in-process ranked candidate list
+     */
+    private static List<Map<String, Object>> pageOf(List<Map<String, Object>> candidates, int page, int pageSize) {
+        int from = (int) Math.min((long) page * pageSize, candidates.size());
+        int to = Math.min(from + pageSize, candidates.size());
+        return new ArrayList<>(candidates.subList(from, to));
+    }
+
+    /**
+     * Solr /select path and query string for the lexical leg of a fused hybrid search: the top
+     * {@code search.hybrid.lexical-depth} matches in relevance order, with facets
+     */
+    String buildHybridLexicalSolrQuery(
+            String query,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            List<String> returnFields
+    ) {
+        StringBuilder solrQuery = new StringBuilder("/select?wt=json");
+        appendHybridLexicalQuery(solrQuery, URLEncoder.encode(query, StandardCharsets.UTF_8));
+        appendFilters(solrQuery, filters);
+        solrQuery.append("&start=0&rows=").append(hybridLexicalDepth);
+        if (returnFields != null && !returnFields.isEmpty()) {
+            solrQuery.append("&fl=").append(String.join(",", returnFields));
+        }
+        appendFacets(solrQuery, facetFields);
+        return solrQuery.toString();
+    }
+
+    /**
+     * Start a leg on the hybrid executor. A saturated pool runs it here instead, so the legs run
+     * one after the other rather than the search losing results.
+     */
+    private CompletableFuture<SolrLeg> submitLeg(SelectRequest solrQuery) {
+        try {
+            return CompletableFuture.supplyAsync(() -> runLeg(solrQuery), hybridExecutor);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hybrid executor saturated, running the leg on the request thread");
+            return runLegHere(solrQuery);
+        }
+    }
+
+    private CompletableFuture<SolrLeg> runLegHere(SelectRequest solrQuery) {
+        try {
+            return CompletableFuture.completedFuture(runLeg(solrQuery));
+        } catch (CompletionException failure) {
+            return CompletableFuture.failedFuture(failure.getCause());
+        }
+    }
+
+    private SolrLeg runLeg(SelectRequest solrQuery) {
+        try {
+            long solrStart = System.nanoTime();
+            SolrResponseParser.SelectResponse response = solrClient.select(solrQuery);
+            long parseStart = response.getResponseStartNanos();
+            return new SolrLeg(response, parseStart - solrStart, System.nanoTime() - parseStart);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static SolrLeg joinLeg(CompletableFuture<SolrLeg> leg) throws Exception {
+        try {
+            return leg.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * One Solr request of a hybrid or multi-vector search, with its round trip and parse times
+     */
+    private static final class SolrLeg {
+        private final SolrResponseParser.SelectResponse response;
+        private final long roundTripNanos;
+        private final long parseNanos;
+
+        SolrLeg(SolrResponseParser.SelectResponse response, long roundTripNanos, long parseNanos) {
+            this.response = response;
+            this.roundTripNanos = roundTripNanos;
+            this.parseNanos = parseNanos;
         }
     }
     
     /**
-     * Perform semantic search using SemanticSearchService with actual vector embeddings
+     * Semantic search paged by Solr within a fixed candidate set: the {@code search.semantic.top-k} nearest
+     * neighbours of the query embedding, narrowed by the filters. Every page runs the same kNN query, so
+     * deep pages cost the same as page 0, totals are the candidate count and facets cover all candidates.
+     * With several vector fields the per-field candidates are merged, sorted and paged in-process
+     * instead, and facets cover the candidates of the first field (in request order) that has any.
      */
     private ComprehensiveSearchResponse performSemanticSearch(
             String query,
@@ -619,46 +1246,107 @@ public class SearchService {
             String sortDirection,
             int page,
             int pageSize,
-            List<String> returnFields
+            List<String> returnFields,
+            Map<String, Double> vectorFields,
+            ComprehensiveSearchResponse.StageTimings timings
     ) throws Exception {
-        long startTime = System.currentTimeMillis();
-        
-        // Get semantic results using actual vector embeddings
-        // Request more results to get proper total count and enable pagination
-        int maxResults = (page + 1) * pageSize + 20; // Get extra results for pagination
-        List<Map<String, Object>> semanticResults = semanticSearchService.semanticSearch(query, maxResults);
+        long embeddingStart = System.nanoTime();
+        float[] queryEmbedding = semanticSearchService.generateEmbedding(query);
+        timings.setEmbeddingNanos(System.nanoTime() - embeddingStart);
         
-        // Remove vector embedding fields from results to reduce response size
-        filterVectorFields(semanticResults);
+        if (queryEmbedding.length == 0) {
+            // Embedding service unavailable: an empty page rather than unranked results
+            timings.setDegraded(true);
+            return mapSolrResponse(new SolrResponseParser.SelectResponse(), query, filters, facetFields,
+                    sortField, sortDirection, page, pageSize, timings);
+        }
         
-        // Apply pagination
-        int startIndex = page * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, semanticResults.size());
-        List<Map<String, Object>> paginatedResults = new ArrayList<>();
-        if (startIndex < semanticResults.size()) {
-            paginatedResults = semanticResults.subList(startIndex, endIndex);
+        if (vectorFields.size() > 1) {
+            List<SolrLeg> legs = new ArrayList<>();
+            List<Map<String, Object>> candidates = vectorCandidates(queryEmbedding, vectorFields, semanticTopK, filters,
+                    facetFields, legFields(returnFields), "Semantic search", legs);
+            timings.setDegraded(legs.size() < vectorFields.size());
+            if (sortField != null && !sortField.trim().isEmpty()) {
+                HybridFusion.sort(candidates, sortField.trim(), "desc".equalsIgnoreCase(sortDirection));
+            }
+            // A field whose query found nothing has no facet counts either
+            SolrLeg facetLeg = legs.get(0);
+            for (SolrLeg leg : legs) {
+                if (!leg.response.getDocs().isEmpty()) {
+                    facetLeg = leg;
+                    break;
+                }
+            }
+            ComprehensiveSearchResponse response = mapSolrResponse(facetLeg.response, query, filters, facetFields,
+                    sortField, sortDirection, page, pageSize, timings);
+            recordLegTimings(timings, legs);
+            return pageCandidates(response, candidates, page, pageSize);
         }
         
-        // Build response
-        long totalResults = semanticResults.size();
-        long executionTime = System.currentTimeMillis() - startTime;
+        SelectRequest solrQuery = buildSemanticSolrQuery(vectorFields.keySet().iterator().next(), queryEmbedding, filters,
+                facetFields, sortField, sortDirection, page, pageSize, returnFields);
         
-        ComprehensiveSearchResponse.PaginationInfo pagination = 
-            new ComprehensiveSearchResponse.PaginationInfo(page, pageSize, totalResults);
+        logSolrQuery("Semantic search", solrQuery);
+        long solrStart = System.nanoTime();
+        SolrResponseParser.SelectResponse solrResponse = solrClient.select(solrQuery);
+        long parseStart = solrResponse.getResponseStartNanos();
+        timings.setSolrRoundTripNanos(parseStart - solrStart);
+        timings.setParseNanos(System.nanoTime() - parseStart);
         
-        ComprehensiveSearchResponse.QueryInfo queryInfo = 
-            new ComprehensiveSearchResponse.QueryInfo(query, filters, 
-                sortField != null ? sortField + " " + sortDirection : "relevance", executionTime);
+        return mapSolrResponse(solrResponse, query, filters, facetFields, sortField, sortDirection, page, pageSize, timings);
+    }
+
+    /**
+     * Solr /select request for one page of a semantic search over the kNN candidate set
+     */
+    SelectRequest buildSemanticSolrQuery(
+            String vectorField,
+            float[] queryEmbedding,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int page,
+            int pageSize,
+            List<String> returnFields
+    ) {
+        return buildKnnSolrQuery(vectorField, queryEmbedding, semanticTopK, filters, facetFields, sortField, sortDirection,
+                page * pageSize, pageSize, returnFields);
+    }
+
+    /**
+     * kNN /select request; the nearest-neighbour query comes from the vector index serving the field and goes
+     * in the JSON body, everything else in the URL
+     */
+    private SelectRequest buildKnnSolrQuery(
+            String vectorField,
+            float[] queryEmbedding,
+            int topK,
+            Map<String, Object> filters,
+            List<String> facetFields,
+            String sortField,
+            String sortDirection,
+            int start,
+            int rows,
+            List<String> returnFields
+    ) {
+        StringBuilder solrQuery = new StringBuilder("/select?wt=json");
         
-        // Empty facets for now (could be added later if needed)
-        Map<String, Map<String, Integer>> facets = new HashMap<>();
+        // Filters are kNN pre-filters: topK is taken from the matching documents
+        appendFilters(solrQuery, filters);
+        appendSort(solrQuery, sortField, sortDirection);
         
-        ComprehensiveSearchResponse.SearchMetadata searchMetadata = 
-            new ComprehensiveSearchResponse.SearchMetadata("semantic", 0, paginatedResults.size());
+        solrQuery.append("&start=").append(start);
+        solrQuery.append("&rows=").append(rows);
+        if (returnFields != null && !returnFields.isEmpty()) {
+            solrQuery.append("&fl=").append(String.join(",", returnFields));
+        }
         
-        return new ComprehensiveSearchResponse(
-            paginatedResults, totalResults, facets, pagination, queryInfo, searchMetadata
-        );
+        appendFacets(solrQuery, facetFields);
+        SelectRequest request = new SelectRequest(solrQuery.toString());
+        semanticSearchService.vectorIndex(vectorField, filters)
+                .selectNearest(request, "q", vectorField, queryEmbedding, topK, filters, 0);
+        return request;
     }
 
     /**
@@ -688,22 +1376,5 @@ public class SearchService {
         // function format: sum(scale(query($lexicalQuery),0,1),query($vectorQuery))
         return "sum(scale(query($lexicalQuery),0,1),query($vectorQuery))";
     }
-    
-    /**
-     * Remove large vector embedding fields from search results to reduce response size
-     */
-    private void filterVectorFields(List<Map<String, Object>> results) {
-        String[] vectorFields = {
-            "name_embedding_vector", 
-            "industry_embedding_vector", 
-            "locality_embedding_vector"
-        };
-        
-        for (Map<String, Object> result : results) {
-            for (String field : vectorFields) {
-                result.remove(field);
-            }
-        }
-    }
 
 }
@@ -2,6 +2,23 @@ package com.firmable.aisearch.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.model.ComprehensiveSearchResponse;
+import com.firmable.aisearch.solr.FieldProjection;
+import com.firmable.aisearch.solr.SelectRequest;
+import com.firmable.aisearch.solr.SolrClient;
+import com.firmable.aisearch.solr.SolrResponseParser;
+import com.firmable.aisearch.logging.RequestLogging;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
@@ -10,19 +27,94 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.*;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class SemanticSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticSearchService.class);
+
+    public static final String NAME_VECTOR_FIELD = "name_embedding_vector";
+    public static final String INDUSTRY_VECTOR_FIELD = "industry_embedding_vector";
+    public static final String LOCALITY_VECTOR_FIELD = "locality_embedding_vector";
+    public static final List<String> VECTOR_FIELDS = List.of(NAME_VECTOR_FIELD, INDUSTRY_VECTOR_FIELD, LOCALITY_VECTOR_FIELD);
+    
+    private static final String VECTOR_FIELD_SUFFIX = "_embedding_vector";
+    
+    @Value("${embedding.url}")
+    private String embeddingApiUrl;
+    
+    @Autowired
+    private RestTemplate restTemplate;
+    
+    @Autowired
+    private SolrClient solrClient;
+    
+    @Autowired
+    @Qualifier("embeddingExecutor")
+    private ExecutorService embeddingExecutor;
+    
+    @Autowired
+    private EmbeddingBatcher embeddingBatcher;
+
+    @Autowired
+    private FieldProjection fieldProjection;
     
-    private static final String EMBEDDING_API_URL = "http://localhost:8085/embed";
-    private static final String SOLR_URL = "http://localhost:8983/solr/company";
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private SolrVectorIndex solrVectorIndex;
+    
+    @Autowired
+    private HnswVectorIndex hnswVectorIndex;
+    
+    @Value("${embedding.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    @Value("${embedding.cache.ttl-ms:3600000}")
+    private long cacheTtlMs;
+    
+    // How long a request waits for its embedding before falling back to lexical search
+    @Value("${embedding.timeout-ms:3000}")
+    private long embeddingTimeoutMs;
+    
+    // Normalized query text -> embedding. Concurrent misses for the same text share one in-flight request.
+    private AsyncCache<String, float[]> embeddingCache;
+    
+    @PostConstruct
+    public void initEmbeddingCache() {
+        embeddingCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .executor(embeddingExecutor)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, embeddingCache, "embedding");
+    }
     
     public List<Map<String, Object>> semanticSearch(String query, int maxResults) throws Exception {
+        return semanticSearch(query, maxResults, new ComprehensiveSearchResponse.StageTimings());
+    }
+    
+    /**
+     * Semantic search recording embedding, Solr round trip, QTime and parse time into the given timings
+     */
+    public List<Map<String, Object>> semanticSearch(String query, int maxResults, ComprehensiveSearchResponse.StageTimings timings) throws Exception {
         // Generate embeddings for the query using the Flask API
+        long embeddingStart = System.nanoTime();
         float[] queryEmbedding = generateEmbedding(query);
+        timings.setEmbeddingNanos(System.nanoTime() - embeddingStart);
         
         if (queryEmbedding.length == 0) {
             // Fallback to empty results if embedding generation failed
@@ -30,11 +122,94 @@ public class SemanticSearchService {
         }
         
         // Perform vector search using the generated embeddings
-        return performVectorSearch(queryEmbedding, maxResults);
+        return performVectorSearch(queryEmbedding, maxResults, timings);
     }
     
+    /**
+     * Embedding for the text, served from the cache when possible. The cache key is the text trimmed and with
+     * whitespace collapsed, and that is what the model is sent; case is kept, as cased models embed case, so
+     * texts differing only in case are separate entries. The returned array is shared
+     * with the cache and must not be modified. Returns an empty array if the embedding service fails or
+     * takes longer than {@code embedding.timeout-ms}.
+     */
     public float[] generateEmbedding(String text) {
-        RestTemplate restTemplate = new RestTemplate();
+        String key = normalizeText(text);
+        if (key.isEmpty()) {
+            return new float[0];
+        }
+        
+        try {
+            // A timed-out wait leaves the shared load running for the other requests and the cache
+            return embeddingCache.get(key, (k, executor) -> loadEmbedding(k, executor))
+                    .get(embeddingTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CompletionException | RejectedExecutionException e) {
+            // Failed loads are not cached, so the next request retries the embedding service
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.warn("Embedding service unavailable, falling back to lexical search: {}", cause.getMessage());
+            return new float[0];
+        } catch (TimeoutException e) {
+            log.warn("No embedding after {}ms, falling back to lexical search", embeddingTimeoutMs);
+            return new float[0];
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new float[0];
+        }
+    }
+    
+    /**
+     * Cache loader: joins the next micro-batch when batching is enabled, otherwise calls the single-text endpoint
+     */
+    private CompletableFuture<float[]> loadEmbedding(String text, Executor executor) {
+        if (embeddingBatcher.isEnabled()) {
+            return embeddingBatcher.submit(text);
+        }
+        return CompletableFuture.supplyAsync(() -> fetchEmbedding(text), executor);
+    }
+    
+    /**
+     * Index for a kNN query on the field: the local HNSW index when {@code search.vector.index=hnsw} and it can
+     * serve the field and filters, otherwise Solr
+     */
+    public VectorIndex vectorIndex(String field, Map<String, Object> filters) {
+        if (hnswVectorIndex.isEnabled() && hnswVectorIndex.supports(field, filters)) {
+            return hnswVectorIndex;
+        }
+        return solrVectorIndex;
+    }
+    
+    public CacheStats getEmbeddingCacheStats() {
+        return embeddingCache.synchronous().stats();
+    }
+    
+    public long getEmbeddingCacheSize() {
+        return embeddingCache.synchronous().estimatedSize();
+    }
+    
+    /**
+     * Cache key and embedded text: trimmed, whitespace collapsed
+     */
+    static String normalizeText(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+    
+    private float[] fetchEmbedding(String text) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         
@@ -44,9 +219,11 @@ public class SemanticSearchService {
         
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
         
+        long start = System.nanoTime();
+        String outcome = "error";
         try {
             ResponseEntity<String> response = restTemplate.exchange(
-                EMBEDDING_API_URL, HttpMethod.POST, request, String.class);
+                embeddingApiUrl, HttpMethod.POST, request, String.class);
             
             ObjectMapper mapper = new ObjectMapper();
             JsonNode root = mapper.readTree(response.getBody());
@@ -57,70 +234,117 @@ public class SemanticSearchService {
                 embedding[i] = (float) embeddingNode.get(i).asDouble();
             }
             
-            System.out.println("=== EMBEDDING DEBUG ===");
-            System.out.println("Generated embedding for: '" + text + "'");
-            System.out.println("Embedding dimension: " + embedding.length);
-            System.out.println("Processing time: " + root.path("processing_time_ms").asDouble() + "ms");
+            log.debug("Generated {}-dim embedding in {}ms", embedding.length, root.path("processing_time_ms").asDouble());
             
+            if (embedding.length == 0) {
+                throw new IllegalStateException("Embedding service returned an empty embedding");
+            }
+            outcome = "success";
             return embedding;
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            // Fallback: return empty results if embedding service is unavailable
-            System.err.println("Embedding service unavailable, falling back to lexical search: " + e.getMessage());
-            return new float[0];
+            throw new CompletionException(e);
+        } finally {
+            Timer.builder("embedding.requests")
+                    .description("Calls to the embedding service")
+                    .tag("mode", "single")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
     
-    private List<Map<String, Object>> performVectorSearch(float[] queryEmbedding, int maxResults) throws Exception {
+    private List<Map<String, Object>> performVectorSearch(float[] queryEmbedding, int maxResults,
+                                                          ComprehensiveSearchResponse.StageTimings timings) throws Exception {
         if (queryEmbedding.length == 0) {
             return new ArrayList<>();
         }
         
-        RestTemplate restTemplate = new RestTemplate();
+        // Build vector search query using name_embedding_vector field; the query goes in the JSON body
+        SelectRequest solrQuery = new SelectRequest("/select?wt=json&rows=" + maxResults +
+            "&fl=" + fieldProjection.fl(FieldProjection.Endpoint.SEMANTIC, null));
+        vectorIndex(NAME_VECTOR_FIELD, null).selectNearest(solrQuery, "q", NAME_VECTOR_FIELD, queryEmbedding, maxResults, null, 0);
         
-        // Build vector search query using name_embedding_vector field
-        // We'll search against the name embeddings first, but could be extended to search multiple fields
-        StringBuilder vectorQuery = new StringBuilder();
-        vectorQuery.append("{!knn f=name_embedding_vector topK=").append(maxResults).append("}");
-        vectorQuery.append("[");
-        for (int i = 0; i < queryEmbedding.length; i++) {
-            if (i > 0) vectorQuery.append(",");
-            vectorQuery.append(queryEmbedding[i]);
+        if (RequestLogging.isDebug()) {
+            log.info("Vector search query: {}{} body: {}", solrClient.getBaseUrl(), solrQuery.getPathAndQuery(), solrQuery.body());
+        } else {
+            log.info(RequestLogging.SAMPLED, "Vector search query: {}", RequestLogging.lazySummary(solrQuery));
         }
-        vectorQuery.append("]");
-        
-        String solrQuery = SOLR_URL + "/select?q=" + 
-            URLEncoder.encode(vectorQuery.toString(), StandardCharsets.UTF_8) + 
-            "&wt=json&rows=" + maxResults +
-            "&fl=id,name,name_s,industry,industry_s,locality,locality_ss,country_s,domain_s,linkedin_url_s,current_employee_estimate_l,totalemployeeestimate_l,year_founded_d,size_range_s,score";
-        
-        System.out.println("=== VECTOR SEARCH DEBUG ===");
-        System.out.println("Vector Search Query: " + solrQuery);
         
         try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                solrQuery, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class);
+            long solrStart = System.nanoTime();
+            SolrResponseParser.SelectResponse solrResponse = solrClient.select(solrQuery);
+            long parseStart = solrResponse.getResponseStartNanos();
+            timings.setSolrRoundTripNanos(parseStart - solrStart);
+            timings.setSolrQTimeNanos(TimeUnit.MILLISECONDS.toNanos(solrResponse.getQTime()));
             
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response.getBody());
-            
-            List<Map<String, Object>> results = new ArrayList<>();
-            JsonNode docs = root.path("response").path("docs");
-            for (JsonNode doc : docs) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> docMap = mapper.convertValue(doc, Map.class);
+            List<Map<String, Object>> results = solrResponse.getDocs();
+            for (Map<String, Object> docMap : results) {
                 docMap.put("searchType", "semantic");
-                results.add(docMap);
             }
             
-            System.out.println("Vector search returned " + results.size() + " results");
+            timings.setParseNanos(System.nanoTime() - parseStart);
+            log.debug("Vector search returned {} results", results.size());
             return results;
         } catch (Exception e) {
-            System.err.println("Vector search failed, returning empty results: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Vector search failed, returning empty results", e);
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Vector fields and weights from a spec such as {@code "name,industry:0.5"}; see {@link #resolveVectorFields}
+     */
+    public static Map<String, Double> parseVectorFields(String spec) {
+        Map<String, Double> requested = new LinkedHashMap<>();
+        if (spec == null) {
+            return requested;
+        }
+        for (String entry : spec.split(",")) {
+            int colon = entry.indexOf(':');
+            String field = (colon >= 0 ? entry.substring(0, colon) : entry).trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            try {
+                requested.put(field, colon >= 0 ? Double.parseDouble(entry.substring(colon + 1).trim()) : 1.0);
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring vector field {} with invalid weight", field);
+            }
+        }
+        return resolveVectorFields(requested);
+    }
+    
+    /**
+     * Requested vector fields by full field name, in request order. Fields may be named with or without the
+     * {@code _embedding_vector} suffix; unknown fields and non-positive weights are dropped.
+     */
+    public static Map<String, Double> resolveVectorFields(Map<String, Double> requested) {
+        Map<String, Double> resolved = new LinkedHashMap<>();
+        if (requested == null) {
+            return resolved;
+        }
+        for (Map.Entry<String, Double> entry : requested.entrySet()) {
+            String field = entry.getKey().trim().toLowerCase();
+            if (!field.endsWith(VECTOR_FIELD_SUFFIX)) {
+                field = field + VECTOR_FIELD_SUFFIX;
+            }
+            Double weight = entry.getValue() != null ? entry.getValue() : 1.0;
+            if (VECTOR_FIELDS.contains(field) && weight > 0) {
+                resolved.put(field, weight);
+            }
+        }
+        return resolved;
+    }
+    
+    /**
+     * Short name of a vector field for responses, e.g. "industry" for industry_embedding_vector
+     */
+    public static String shortVectorFieldName(String field) {
+        return field.endsWith(VECTOR_FIELD_SUFFIX) ? field.substring(0, field.length() - VECTOR_FIELD_SUFFIX.length()) : field;
+    }
+    
     public List<Map<String, Object>> hybridSearch(String query, int maxResults) throws Exception {
         // Get semantic results (top 60% of requested results)
         int semanticCount = (int) Math.ceil(maxResults * 0.6);
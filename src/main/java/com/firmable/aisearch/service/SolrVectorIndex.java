@@ -0,0 +1,29 @@
+package com.firmable.aisearch.service;
+
+import com.firmable.aisearch.solr.SelectRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Solr's own HNSW index: a {@code {!knn}} query, with the request's fq parameters as kNN pre-filters
+ */
+@Service
+public class SolrVectorIndex implements VectorIndex {
+
+    @Override
+    public String getName() {
+        return "solr";
+    }
+
+    @Override
+    public boolean supports(String field, Map<String, Object> filters) {
+        return true;
+    }
+
+    @Override
+    public void selectNearest(SelectRequest request, String param, String field, float[] vector, int topK,
+                              Map<String, Object> filters, double boost) {
+        request.knn(param, field, topK, vector, boost);
+    }
+}
@@ -0,0 +1,213 @@
+package com.firmable.aisearch.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firmable.aisearch.solr.IndexVersionChangedEvent;
+import com.firmable.aisearch.solr.IndexVersionMonitor;
+import com.firmable.aisearch.solr.SolrClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the lifecycle of the Solr {@code companySuggester} dictionary.
+ * The dictionary is built once at startup, again whenever the index version changes,
+ * and on a background schedule; autosuggest requests only ever read from it.
+ */
+@Service
+public class SuggesterService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggesterService.class);
+
+    public static final String DICTIONARY = "companySuggester";
+
+    @Autowired
+    private SolrClient solrClient;
+
+    @Autowired
+    private IndexVersionMonitor indexVersionMonitor;
+
+    @Value("${suggester.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    @Value("${suggester.field:name}")
+    private String suggesterField;
+
+    // Building reads the whole field, which takes far longer than a search on a real-sized core
+    @Value("${suggester.build-timeout-ms:600000}")
+    private long buildTimeoutMs;
+
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "suggester-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private final AtomicReference<String> pendingReason = new AtomicReference<>();
+    private volatile SuggesterStatus status = new SuggesterStatus();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (buildOnStartup) {
+            triggerRebuild("startup");
+        }
+    }
+
+    @EventListener
+    public void onIndexVersionChanged(IndexVersionChangedEvent event) {
+        triggerRebuild("index version " + event.getCurrentVersion());
+    }
+
+    @Scheduled(cron = "${suggester.rebuild-cron:0 0 3 * * *}")
+    public void scheduledRebuild() {
+        triggerRebuild("schedule");
+    }
+
+    /**
+     * Start a background rebuild, or if one is already running, have it build once more when it finishes,
+     * so an index change during a long build is not lost. Requests while a build is running collapse into
+     * that one follow-up build, which takes the latest reason.
+     * @return true if a new build was started
+     */
+    public boolean triggerRebuild(String reason) {
+        pendingReason.set(reason);
+        if (!building.compareAndSet(false, true)) {
+            log.debug("Suggester build running, rebuilding again when it finishes ({})", reason);
+            return false;
+        }
+        buildExecutor.submit(this::runPendingBuilds);
+        return true;
+    }
+
+    private void runPendingBuilds() {
+        try {
+            String reason;
+            while ((reason = pendingReason.getAndSet(null)) != null) {
+                build(reason);
+            }
+        } finally {
+            building.set(false);
+        }
+        // A request that came after the last check but saw the build still running
+        if (pendingReason.get() != null && building.compareAndSet(false, true)) {
+            buildExecutor.submit(this::runPendingBuilds);
+        }
+    }
+
+    public boolean isReady() {
+        return status.getLastSuccessfulBuild() != null;
+    }
+
+    public SuggesterStatus getStatus() {
+        SuggesterStatus snapshot = status.copy();
+        snapshot.setBuilding(building.get());
+        return snapshot;
+    }
+
+    private void build(String reason) {
+        SuggesterStatus next = status.copy();
+        next.setLastBuildReason(reason);
+        next.setLastBuildStarted(Instant.now().toString());
+
+        long start = System.currentTimeMillis();
+        try {
+            long indexVersion = indexVersionMonitor.refresh();
+
+            solrClient.get("/suggest?suggest=true&suggest.build=true&suggest.dictionary=" + DICTIONARY + "&wt=json", buildTimeoutMs);
+
+            next.setBuildTimeMs(System.currentTimeMillis() - start);
+            next.setIndexVersion(indexVersion);
+            next.setDictionarySize(countDictionaryEntries());
+            next.setLastSuccessfulBuild(Instant.now().toString());
+            next.setLastError(null);
+
+            log.info("Suggester {} rebuilt ({}) in {}ms, {} entries", DICTIONARY, reason, next.getBuildTimeMs(), next.getDictionarySize());
+        } catch (Exception e) {
+            next.setBuildTimeMs(System.currentTimeMillis() - start);
+            next.setLastError(e.getMessage());
+            log.warn("Suggester rebuild failed ({}): {}", reason, e.getMessage());
+        }
+        status = next;
+    }
+
+    /**
+     * DocumentDictionaryFactory adds one entry per document that has the suggest field,
+     * so the number of such documents is the dictionary size.
+     */
+    private long countDictionaryEntries() throws Exception {
+        ResponseEntity<String> response = solrClient.get("/select?q=" + suggesterField + ":*&rows=0&wt=json");
+        JsonNode root = new ObjectMapper().readTree(response.getBody());
+        return root.path("response").path("numFound").asLong();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    public static class SuggesterStatus {
+        private String dictionary = DICTIONARY;
+        private boolean building;
+        private String lastBuildReason;
+        private String lastBuildStarted;
+        private String lastSuccessfulBuild;
+        private long buildTimeMs;
+        private long dictionarySize;
+        private long indexVersion = -1;
+        private String lastError;
+
+        SuggesterStatus copy() {
+            SuggesterStatus copy = new SuggesterStatus();
+            copy.building = building;
+            copy.lastBuildReason = lastBuildReason;
+            copy.lastBuildStarted = lastBuildStarted;
+            copy.lastSuccessfulBuild = lastSuccessfulBuild;
+            copy.buildTimeMs = buildTimeMs;
+            copy.dictionarySize = dictionarySize;
+            copy.indexVersion = indexVersion;
+            copy.lastError = lastError;
+            return copy;
+        }
+
+        public String getDictionary() { return dictionary; }
+        public void setDictionary(String dictionary) { this.dictionary = dictionary; }
+
+        public boolean isBuilding() { return building; }
+        public void setBuilding(boolean building) { this.building = building; }
+
+        public String getLastBuildReason() { return lastBuildReason; }
+        public void setLastBuildReason(String lastBuildReason) { this.lastBuildReason = lastBuildReason; }
+
+        public String getLastBuildStarted() { return lastBuildStarted; }
+        public void setLastBuildStarted(String lastBuildStarted) { this.lastBuildStarted = lastBuildStarted; }
+
+        public String getLastSuccessfulBuild() { return lastSuccessfulBuild; }
+        public void setLastSuccessfulBuild(String lastSuccessfulBuild) { this.lastSuccessfulBuild = lastSuccessfulBuild; }
+
+        public long getBuildTimeMs() { return buildTimeMs; }
+        public void setBuildTimeMs(long buildTimeMs) { this.buildTimeMs = buildTimeMs; }
+
+        public long getDictionarySize() { return dictionarySize; }
+        public void setDictionarySize(long dictionarySize) { this.dictionarySize = dictionarySize; }
+
+        public long getIndexVersion() { return indexVersion; }
+        public void setIndexVersion(long indexVersion) { this.indexVersion = indexVersion; }
+
+        public String getLastError() { return lastError; }
+        public void setLastError(String lastError) { this.lastError = lastError; }
+    }
+}
@@ -0,0 +1,62 @@
+package com.firmable.aisearch.service;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * JDK Vector API kernel. Bytes are widened to shorts, multiplied (127 * 127 fits a short) and widened again
+ * into int accumulators of the preferred vector size, so a step covers as many dimensions as an int vector
+ * has lanes. On 128-bit hardware the products are split across two accumulators instead.
+ * Only loaded when the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorApiInt8DotProduct implements Int8DotProduct {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // Eight lanes is the narrowest byte vector, so 128-bit ints take two halves of each step
+    private static final int LANES = Math.max(8, INTS.length());
+    private static final boolean SPLIT = INTS.length() < LANES;
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class, VectorShape.forBitSize(LANES * 8));
+    private static final VectorSpecies<Short> SHORTS = VectorSpecies.of(short.class, VectorShape.forBitSize(LANES * 16));
+
+    VectorApiInt8DotProduct() {
+        if (INTS.vectorBitSize() < 128) {
+            throw new IllegalStateException("No SIMD support: " + INTS.vectorBitSize() + "-bit vectors");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector-api-" + INTS.vectorBitSize();
+    }
+
+    @Override
+    public int dot(ByteBuffer vectors, int offset, byte[] query) {
+        int bound = BYTES.loopBound(query.length);
+        IntVector sum = IntVector.zero(INTS);
+        IntVector high = IntVector.zero(INTS);
+        int i = 0;
+        for (; i < bound; i += LANES) {
+            ShortVector a = (ShortVector) ByteVector.fromByteBuffer(BYTES, vectors, offset + i, ByteOrder.nativeOrder())
+                    .convertShape(VectorOperators.B2S, SHORTS, 0);
+            ShortVector b = (ShortVector) ByteVector.fromArray(BYTES, query, i)
+                    .convertShape(VectorOperators.B2S, SHORTS, 0);
+            ShortVector products = a.mul(b);
+            sum = sum.add(products.convertShape(VectorOperators.S2I, INTS, 0));
+            if (SPLIT) {
+                high = high.add(products.convertShape(VectorOperators.S2I, INTS, 1));
+            }
+        }
+        int result = sum.add(high).reduceLanes(VectorOperators.ADD);
+        for (; i < query.length; i++) {
+            result += vectors.get(offset + i) * query[i];
+        }
+        return result;
+    }
+}
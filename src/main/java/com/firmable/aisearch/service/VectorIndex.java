@@ -0,0 +1,31 @@
+package com.firmable.aisearch.service;
+
+import com.firmable.aisearch.solr.SelectRequest;
+
+import java.util.Map;
+
+/**
+ * Nearest-neighbour retrieval over the company embedding fields, expressed as a query on a Solr /select
+ * request. The selected documents are scored by their similarity to the query vector on the Solr kNN scale,
+ * so Solr still applies filters, sorting, paging, facets and field projection, whichever index found them.
+ */
+public interface VectorIndex {
+
+    /**
+     * Short name for logs and metrics
+     */
+    String getName();
+
+    /**
+     * True if this index can find the nearest neighbours in {@code field} among documents matching {@code filters}
+     */
+    boolean supports(String field, Map<String, Object> filters);
+
+    /**
+     * Set {@code param} ("q", or "bq" for a boost query) of the request to select the {@code topK} nearest
+     * neighbours of {@code vector} in {@code field} among documents matching {@code filters}, with
+     * {@code ^boost} applied when {@code boost} is positive
+     */
+    void selectNearest(SelectRequest request, String param, String field, float[] vector, int topK,
+                       Map<String, Object> filters, double boost);
+}
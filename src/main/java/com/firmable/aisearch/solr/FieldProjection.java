@@ -0,0 +1,111 @@
+package com.firmable.aisearch.solr;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides the Solr {@code fl} for each search endpoint. Without it Solr returns every stored field, including
+ * the 384-dim {@code *_embedding_vector} fields; those are never requested. Client-supplied return fields are
+ * checked against a whitelist and unknown fields are dropped.
+ */
+@Component
+public class FieldProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(FieldProjection.class);
+
+    private static final String VECTOR_FIELD_SUFFIX = "_embedding_vector";
+
+    public enum Endpoint {
+        /** GET /api/search, which returns the Solr JSON as is */
+        SEARCH,
+        /** /api/search/comprehensive lexical and hybrid searches */
+        COMPREHENSIVE,
+        /** kNN vector searches */
+        SEMANTIC
+    }
+
+    @Value("${search.fields.allowed:id,name,name_s,industry,industry_s,locality,locality_ss,country_s,domain_s,linkedin_url_s,current_employee_estimate_l,totalemployeeestimate_l,year_founded_d,size_range_s,score}")
+    private List<String> allowed;
+
+    @Value("${search.fields.search:id,name,industry,locality,country_s,domain_s,linkedin_url_s,current_employee_estimate_l,totalemployeeestimate_l,year_founded_d,size_range_s,score}")
+    private List<String> searchDefault;
+
+    @Value("${search.fields.comprehensive:id,name,name_s,industry,industry_s,locality,locality_ss,country_s,domain_s,linkedin_url_s,current_employee_estimate_l,totalemployeeestimate_l,year_founded_d,size_range_s,score}")
+    private List<String> comprehensiveDefault;
+
+    @Value("${search.fields.semantic:id,name,name_s,industry,industry_s,locality,locality_ss,country_s,domain_s,linkedin_url_s,current_employee_estimate_l,totalemployeeestimate_l,year_founded_d,size_range_s,score}")
+    private List<String> semanticDefault;
+
+    private final Set<String> allowedFields = new LinkedHashSet<>();
+    private final Map<Endpoint, List<String>> defaults = new EnumMap<>(Endpoint.class);
+
+    @PostConstruct
+    public void init() {
+        for (String field : allowed) {
+            String name = field.trim();
+            if (name.endsWith(VECTOR_FIELD_SUFFIX)) {
+                log.warn("Ignoring vector field {} in search.fields.allowed", name);
+            } else if (!name.isEmpty()) {
+                allowedFields.add(name);
+            }
+        }
+        defaults.put(Endpoint.SEARCH, whitelisted("search.fields.search", searchDefault));
+        defaults.put(Endpoint.COMPREHENSIVE, whitelisted("search.fields.comprehensive", comprehensiveDefault));
+        defaults.put(Endpoint.SEMANTIC, whitelisted("search.fields.semantic", semanticDefault));
+    }
+
+    /**
+     * The fields to request: the whitelisted subset of {@code requested}, or the endpoint's default when
+     * nothing was requested or none of the requested fields is allowed
+     */
+    public List<String> resolve(Endpoint endpoint, List<String> requested) {
+        if (requested != null) {
+            Set<String> fields = new LinkedHashSet<>();
+            for (String field : requested) {
+                if (field == null) {
+                    continue;
+                }
+                // returnFields=a,b arrives as one element from some clients
+                for (String name : field.split(",")) {
+                    if (allowedFields.contains(name.trim())) {
+                        fields.add(name.trim());
+                    }
+                }
+            }
+            if (!fields.isEmpty()) {
+                return new ArrayList<>(fields);
+            }
+        }
+        return defaults.get(endpoint);
+    }
+
+    /**
+     * Value for Solr's {@code fl} parameter
+     */
+    public String fl(Endpoint endpoint, List<String> requested) {
+        return String.join(",", resolve(endpoint, requested));
+    }
+
+    private List<String> whitelisted(String property, List<String> fields) {
+        List<String> projected = new ArrayList<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (allowedFields.contains(name)) {
+                projected.add(name);
+            } else if (!name.isEmpty()) {
+                log.warn("Ignoring field {} in {}: not in search.fields.allowed", name, property);
+            }
+        }
+        return List.copyOf(projected);
+    }
+}
@@ -0,0 +1,30 @@
+package com.firmable.aisearch.solr;
+
+/**
+ * Published by {@link IndexVersionMonitor} when the Solr index version moves,
+ * i.e. after a commit that changed the searchable documents.
+ */
+public class IndexVersionChangedEvent {
+    private final long previousVersion;
+    private final long currentVersion;
+    private final long numDocs;
+
+    public IndexVersionChangedEvent(long previousVersion, long currentVersion, long numDocs) {
+        this.previousVersion = previousVersion;
+        this.currentVersion = currentVersion;
+        this.numDocs = numDocs;
+    }
+
+    public long getPreviousVersion() { return previousVersion; }
+    public long getCurrentVersion() { return currentVersion; }
+    public long getNumDocs() { return numDocs; }
+
+    @Override
+    public String toString() {
+        return "IndexVersionChangedEvent{" +
+                "previousVersion=" + previousVersion +
+                ", currentVersion=" + currentVersion +
+                ", numDocs=" + numDocs +
+                '}';
+    }
+}
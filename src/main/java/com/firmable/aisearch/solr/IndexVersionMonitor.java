@@ -0,0 +1,64 @@
+package com.firmable.aisearch.solr;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls the Solr core's index version and publishes an {@link IndexVersionChangedEvent}
+ * whenever it changes, so in-memory structures derived from the index can refresh.
+ */
+@Component
+public class IndexVersionMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexVersionMonitor.class);
+
+    @Autowired
+    private SolrClient solrClient;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile long indexVersion = -1;
+    private volatile long numDocs = -1;
+
+    public long getIndexVersion() { return indexVersion; }
+    public long getNumDocs() { return numDocs; }
+
+    @Scheduled(initialDelayString = "${solr.index-version.poll-ms:30000}",
+               fixedDelayString = "${solr.index-version.poll-ms:30000}")
+    public void checkIndexVersion() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Index version check failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch the current index version from Solr, publishing an event if it differs from the last one seen.
+     * The first successful read only records the version; there is nothing to invalidate yet.
+     */
+    public synchronized long refresh() throws Exception {
+        ResponseEntity<String> response = solrClient.get("/admin/luke?numTerms=0&show=index&wt=json");
+        JsonNode index = new ObjectMapper().readTree(response.getBody()).path("index");
+        long version = index.path("version").asLong(-1);
+        long docs = index.path("numDocs").asLong(-1);
+
+        long previous = indexVersion;
+        indexVersion = version;
+        numDocs = docs;
+
+        if (previous != -1 && version != previous) {
+            log.info("Solr index version changed: {} -> {}", previous, version);
+            eventPublisher.publishEvent(new IndexVersionChangedEvent(previous, version, docs));
+        }
+        return version;
+    }
+}
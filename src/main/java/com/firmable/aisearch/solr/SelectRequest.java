@@ -0,0 +1,327 @@
+package com.firmable.aisearch.solr;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Solr /select request: URL parameters plus kNN clauses and other long parameter values. Requests with
+ * such clauses are sent as a POST with a JSON Request API body ({@code {"params": {"q": "{!knn ...}[...]"}}}),
+ * so query vectors and id lists never go into the URL. The body is written on the sending thread into a
+ * reused per-thread buffer, with vector components in compact fixed-point form.
+ */
+public final class SelectRequest {
+
+    // Embeddings are unit-normalized; an absolute error of 5e-7 per component does not change neighbour ranking
+    private static final int VECTOR_DECIMALS = 6;
+    private static final long VECTOR_SCALE = 1_000_000L;
+
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private final String pathAndQuery;
+    private final List<Clause> clauses = new ArrayList<>(2);
+
+    public SelectRequest(String pathAndQuery) {
+        this.pathAndQuery = pathAndQuery;
+    }
+
+    /**
+     * Add {@code {!knn f=field topK=topK}[vector]} as the value of {@code param} ("q", or "bq" for a boost query)
+     */
+    public SelectRequest knn(String param, String field, int topK, float[] vector) {
+        return knn(param, field, topK, vector, 0);
+    }
+
+    /**
+     * As above, with {@code ^boost} appended when {@code boost} is positive
+     */
+    public SelectRequest knn(String param, String field, int topK, float[] vector, double boost) {
+        clauses.add(new KnnClause(param, field, topK, vector, boost));
+        return this;
+    }
+
+    /**
+     * Add a parameter to the JSON body rather than the URL, e.g. a query over a long list of ids
+     */
+    public SelectRequest param(String param, String value) {
+        clauses.add(new TextClause(param, value));
+        return this;
+    }
+
+    public String getPathAndQuery() {
+        return pathAndQuery;
+    }
+
+    /**
+     * True when the request has body parameters and must be sent as a POST with {@link #writeBody}
+     */
+    public boolean hasBody() {
+        return !clauses.isEmpty();
+    }
+
+    /**
+     * Write the JSON body to {@code out}; returns the number of bytes written
+     */
+    public int writeBody(OutputStream out) throws IOException {
+        return writeBody((bytes, length) -> out.write(bytes, 0, length));
+    }
+
+    /**
+     * Serialize the JSON body into this thread's buffer and hand it to {@code sink} with its length, so the
+     * caller can set Content-Length first. The bytes are only valid during the call.
+     */
+    public int writeBody(BodySink sink) throws IOException {
+        Buffer buffer = BUFFER.get();
+        buffer.length = 0;
+        writeBody(buffer);
+        sink.write(buffer.bytes, buffer.length);
+        return buffer.length;
+    }
+
+    public interface BodySink {
+        void write(byte[] bytes, int length) throws IOException;
+    }
+
+    /**
+     * The JSON body as a string, for debug logging
+     */
+    public String body() {
+        Buffer buffer = new Buffer();
+        writeBody(buffer);
+        return new String(buffer.bytes, 0, buffer.length, StandardCharsets.UTF_8);
+    }
+
+    private void writeBody(Buffer buffer) {
+        buffer.ascii("{\"params\":{");
+        List<String> written = new ArrayList<>(2);
+        for (Clause clause : clauses) {
+            if (written.contains(clause.param)) {
+                continue;
+            }
+            if (!written.isEmpty()) {
+                buffer.ascii(',');
+            }
+            written.add(clause.param);
+            buffer.string(clause.param);
+            buffer.ascii(':');
+
+            // A parameter given more than once becomes an array, as Solr expects for multi-valued params
+            long count = clauses.stream().filter(other -> other.param.equals(clause.param)).count();
+            if (count > 1) {
+                buffer.ascii('[');
+            }
+            boolean first = true;
+            for (Clause other : clauses) {
+                if (other.param.equals(clause.param)) {
+                    if (!first) {
+                        buffer.ascii(',');
+                    }
+                    other.write(buffer);
+                    first = false;
+                }
+            }
+            if (count > 1) {
+                buffer.ascii(']');
+            }
+        }
+        buffer.ascii("}}");
+    }
+
+    /**
+     * URL parameters followed by the body parameters with vectors and long values collapsed, for logs
+     */
+    @Override
+    public String toString() {
+        if (clauses.isEmpty()) {
+            return pathAndQuery;
+        }
+        StringBuilder summary = new StringBuilder(pathAndQuery).append(" json:");
+        for (Clause clause : clauses) {
+            summary.append(' ').append(clause.param).append('=');
+            clause.summarize(summary);
+        }
+        return summary.toString();
+    }
+
+    private abstract static class Clause {
+        final String param;
+
+        Clause(String param) {
+            this.param = param;
+        }
+
+        abstract void write(Buffer buffer);
+
+        abstract void summarize(StringBuilder summary);
+    }
+
+    private static final class KnnClause extends Clause {
+        private final String field;
+        private final int topK;
+        private final float[] vector;
+        private final double boost;
+
+        KnnClause(String param, String field, int topK, float[] vector, double boost) {
+            super(param);
+            this.field = field;
+            this.topK = topK;
+            this.vector = vector;
+            this.boost = boost;
+        }
+
+        void write(Buffer buffer) {
+            buffer.ascii('"');
+            buffer.ascii("{!knn f=");
+            buffer.ascii(field);
+            buffer.ascii(" topK=");
+            buffer.integer(topK);
+            buffer.ascii("}[");
+            for (int i = 0; i < vector.length; i++) {
+                if (i > 0) {
+                    buffer.ascii(',');
+                }
+                buffer.decimal(vector[i]);
+            }
+            buffer.ascii(']');
+            if (boost > 0) {
+                buffer.ascii('^');
+                buffer.ascii(Double.toString(boost));
+            }
+            buffer.ascii('"');
+        }
+
+        @Override
+        void summarize(StringBuilder summary) {
+            summary.append("{!knn f=").append(field).append(" topK=").append(topK)
+                    .append("}[<").append(vector.length).append(" floats>]");
+            if (boost > 0) {
+                summary.append('^').append(boost);
+            }
+        }
+    }
+
+    private static final class TextClause extends Clause {
+        private static final int SUMMARY_LENGTH = 120;
+
+        private final String value;
+
+        TextClause(String param, String value) {
+            super(param);
+            this.value = value;
+        }
+
+        @Override
+        void write(Buffer buffer) {
+            buffer.string(value);
+        }
+
+        @Override
+        void summarize(StringBuilder summary) {
+            if (value.length() <= SUMMARY_LENGTH) {
+                summary.append(value);
+            } else {
+                summary.append(value, 0, SUMMARY_LENGTH).append("...<").append(value.length()).append(" chars>");
+            }
+        }
+    }
+
+    /**
+     * Growable byte buffer for ASCII JSON; field and parameter names are whitelisted identifiers, and other
+     * strings are escaped, with non-ASCII characters written as unicode escapes
+     */
+    private static final class Buffer {
+        private byte[] bytes = new byte[8192];
+        private int length;
+
+        void ascii(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+        }
+
+        void ascii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        void string(String value) {
+            ascii('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    ascii('\\');
+                    ascii(c);
+                } else if (c < 0x20 || c > 0x7e) {
+                    ascii("\\u");
+                    for (int shift = 12; shift >= 0; shift -= 4) {
+                        ascii(Character.forDigit((c >> shift) & 0xf, 16));
+                    }
+                } else {
+                    ascii(c);
+                }
+            }
+            ascii('"');
+        }
+
+        void integer(long value) {
+            if (value < 0) {
+                ascii('-');
+                value = -value;
+            }
+            ensure(20);
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            reverse(start, length - 1);
+        }
+
+        /**
+         * Fixed-point with at most {@code VECTOR_DECIMALS} decimals and no trailing zeros: -0.0123 rather than
+         * -0.012300000377, and never exponent notation
+         */
+        void decimal(float value) {
+            long scaled = Float.isFinite(value) ? Math.round((double) value * VECTOR_SCALE) : 0;
+            if (scaled < 0) {
+                ascii('-');
+                scaled = -scaled;
+            }
+            integer(scaled / VECTOR_SCALE);
+            long fraction = scaled % VECTOR_SCALE;
+            if (fraction == 0) {
+                return;
+            }
+            int digits = VECTOR_DECIMALS;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            ensure(digits + 1);
+            bytes[length++] = '.';
+            for (int i = digits - 1; i >= 0; i--) {
+                bytes[length + i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            length += digits;
+        }
+
+        private void reverse(int from, int to) {
+            while (from < to) {
+                byte tmp = bytes[from];
+                bytes[from++] = bytes[to];
+                bytes[to--] = tmp;
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.firmable.aisearch.solr;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.Timeout;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Single entry point for all Solr HTTP calls. Requests go through the shared pooled
+ * {@link RestTemplate} so connections to Solr are kept alive and reused across requests.
+ */
+@Component
+public class SolrClient {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private CloseableHttpClient httpClient;
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${solr.url}")
+    private String solrUrl;
+
+    // json or javabin, for the /select calls parsed by SolrResponseParser
+    @Value("${solr.response-format:json}")
+    private String responseFormat;
+
+    // When false, Solr responses are requested uncompressed (Accept-Encoding: identity)
+    @Value("${solr.http.compression:true}")
+    private boolean compression;
+
+    @Value("${http.connection-request-timeout-ms:500}")
+    private long connectionRequestTimeoutMs;
+
+    // RestTemplates over the shared client with a longer response timeout, by timeout
+    private final Map<Long, RestTemplate> slowRestTemplates = new ConcurrentHashMap<>();
+
+    private static final Pattern WT_JSON = Pattern.compile("([?&])wt=json(?=&|$)");
+
+    public String getBaseUrl() {
+        return solrUrl;
+    }
+
+    /**
+     * Execute a GET against the configured core, e.g. {@code get("/select?q=*:*&wt=json")}
+     */
+    public ResponseEntity<String> get(String pathAndQuery) {
+        return get(restTemplate, pathAndQuery);
+    }
+
+    /**
+     * As above, for calls that outlast {@code http.read-timeout-ms} (e.g. suggester dictionary builds): waits up
+     * to {@code responseTimeoutMs} for the response, still on a pooled connection
+     */
+    public ResponseEntity<String> get(String pathAndQuery, long responseTimeoutMs) {
+        return get(slowRestTemplates.computeIfAbsent(responseTimeoutMs, this::restTemplate), pathAndQuery);
+    }
+
+    private ResponseEntity<String> get(RestTemplate template, String pathAndQuery) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            ResponseEntity<String> response = template.exchange(
+                    solrUrl + pathAndQuery,
+                    HttpMethod.GET,
+                    new HttpEntity<>(requestHeaders()),
+                    String.class
+            );
+            outcome = "success";
+            return response;
+        } finally {
+            recordRequest(pathAndQuery, outcome, start);
+        }
+    }
+
+    /**
+     * Execute a GET and hand the response to {@code extractor} while the body is still streaming,
+     * e.g. {@code get(query, response -> SolrResponseParser.parseSelect(response.getBody()))}
+     */
+    public <T> T get(String pathAndQuery, ResponseExtractor<T> extractor) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = restTemplate.execute(solrUrl + pathAndQuery, HttpMethod.GET,
+                    request -> request.getHeaders().addAll(requestHeaders()), extractor);
+            outcome = "success";
+            return result;
+        } finally {
+            recordRequest(pathAndQuery, outcome, start);
+        }
+    }
+
+    /**
+     * Execute a /select query and parse it in the configured response format. {@code wt=json} in the query is
+     * swapped for {@code wt=javabin} when javabin is enabled.
+     */
+    public SolrResponseParser.SelectResponse select(String pathAndQuery) {
+        boolean javabin = "javabin".equalsIgnoreCase(responseFormat);
+        String query = javabin ? WT_JSON.matcher(pathAndQuery).replaceFirst("$1wt=javabin") : pathAndQuery;
+        return get(query, selectExtractor(javabin));
+    }
+
+    /**
+     * As above; requests with kNN clauses are POSTed with their JSON body, the rest are plain GETs
+     */
+    public SolrResponseParser.SelectResponse select(SelectRequest request) {
+        if (!request.hasBody()) {
+            return select(request.getPathAndQuery());
+        }
+        boolean javabin = "javabin".equalsIgnoreCase(responseFormat);
+        String pathAndQuery = request.getPathAndQuery();
+        String query = javabin ? WT_JSON.matcher(pathAndQuery).replaceFirst("$1wt=javabin") : pathAndQuery;
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            SolrResponseParser.SelectResponse result = restTemplate.execute(solrUrl + query, HttpMethod.POST,
+                    httpRequest -> {
+                        httpRequest.getHeaders().addAll(requestHeaders());
+                        httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        request.writeBody((bytes, length) -> {
+                            httpRequest.getHeaders().setContentLength(length);
+                            httpRequest.getBody().write(bytes, 0, length);
+                        });
+                    },
+                    selectExtractor(javabin));
+            outcome = "success";
+            return result;
+        } finally {
+            recordRequest(pathAndQuery, outcome, start);
+        }
+    }
+
+    private RestTemplate restTemplate(long responseTimeoutMs) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                .build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig);
+            return context;
+        });
+        return new RestTemplate(requestFactory);
+    }
+
+    private static ResponseExtractor<SolrResponseParser.SelectResponse> selectExtractor(boolean javabin) {
+        return response -> {
+            long responseStart = System.nanoTime();
+            SolrResponseParser.SelectResponse parsed = javabin
+                    ? SolrResponseParser.parseSelectJavabin(response.getBody())
+                    : SolrResponseParser.parseSelect(response.getBody());
+            parsed.setResponseStartNanos(responseStart);
+            return parsed;
+        };
+    }
+
+    /**
+     * HttpClient asks for gzip/deflate and decompresses transparently; identity opts Solr calls out of that
+     */
+    private HttpHeaders requestHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        if (!compression) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "identity");
+        }
+        return headers;
+    }
+
+    private void recordRequest(String pathAndQuery, String outcome, long start) {
+        Timer.builder("solr.requests")
+                .description("Solr HTTP calls by request handler")
+                .tag("handler", handler(pathAndQuery))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Request handler path ("/select", "/suggest", "/admin/luke") used as a low-cardinality tag
+     */
+    private static String handler(String pathAndQuery) {
+        int query = pathAndQuery.indexOf('?');
+        return query >= 0 ? pathAndQuery.substring(0, query) : pathAndQuery;
+    }
+
+    /**
+     * Connection pool statistics: totals plus per-route breakdown
+     */
+    public Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", toMap(connectionManager.getTotalStats()));
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), toMap(connectionManager.getStats(route)));
+        }
+        stats.put("routes", routes);
+        return stats;
+    }
+
+    private Map<String, Integer> toMap(PoolStats poolStats) {
+        Map<String, Integer> values = new LinkedHashMap<>();
+        values.put("leased", poolStats.getLeased());
+        values.put("available", poolStats.getAvailable());
+        values.put("pending", poolStats.getPending());
+        values.put("max", poolStats.getMax());
+        return values;
+    }
+}
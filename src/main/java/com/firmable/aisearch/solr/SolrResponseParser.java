@@ -0,0 +1,209 @@
+package com.firmable.aisearch.solr;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.JavaBinCodec;
+import org.apache.solr.common.util.NamedList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsers for Solr /select responses. JSON is read token by token: documents, numFound, QTime and facet counts
+ * are read straight off the stream, and embedding vectors and other sections are skipped without building a tree.
+ * javabin responses are decoded with SolrJ's {@link JavaBinCodec} into the same {@link SelectResponse}.
+ */
+public final class SolrResponseParser {
+
+    /** Shared for the occasional nested value (multi-valued fields); ObjectMapper is thread-safe once configured */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String VECTOR_FIELD_SUFFIX = "_embedding_vector";
+
+    private SolrResponseParser() {
+    }
+
+    public static SelectResponse parseSelect(InputStream body) throws IOException {
+        SelectResponse result = new SelectResponse();
+        try (JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object from Solr, got " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.currentName();
+                parser.nextToken();
+                switch (section) {
+                    case "responseHeader" -> readHeader(parser, result);
+                    case "response" -> readResponse(parser, result);
+                    case "facet_counts" -> readFacetCounts(parser, result);
+                    case "nextCursorMark" -> result.nextCursorMark = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode a {@code wt=javabin} response. Values keep their javabin types (Float, Long, ...) except dates,
+     * which become the ISO-8601 strings the JSON writer produces.
+     */
+    public static SelectResponse parseSelectJavabin(InputStream body) throws IOException {
+        SelectResponse result = new SelectResponse();
+        Object decoded;
+        try (JavaBinCodec codec = new JavaBinCodec()) {
+            decoded = codec.unmarshal(body);
+        }
+        if (!(decoded instanceof NamedList<?> root)) {
+            throw new IOException("Expected a NamedList from Solr, got " + (decoded != null ? decoded.getClass().getName() : "null"));
+        }
+        if (root.get("responseHeader") instanceof NamedList<?> header && header.get("QTime") instanceof Number qTime) {
+            result.qTime = qTime.longValue();
+        }
+        if (root.get("response") instanceof SolrDocumentList docs) {
+            result.numFound = docs.getNumFound();
+            for (SolrDocument solrDoc : docs) {
+                Map<String, Object> doc = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> field : solrDoc) {
+                    if (!field.getKey().endsWith(VECTOR_FIELD_SUFFIX)) {
+                        Object value = field.getValue();
+                        doc.put(field.getKey(), value instanceof Date date ? date.toInstant().toString() : value);
+                    }
+                }
+                result.docs.add(doc);
+            }
+        }
+        if (root.get("nextCursorMark") instanceof String nextCursorMark) {
+            result.nextCursorMark = nextCursorMark;
+        }
+        if (root.get("facet_counts") instanceof NamedList<?> facetCounts
+                && facetCounts.get("facet_fields") instanceof NamedList<?> facetFields) {
+            for (Map.Entry<String, ?> field : facetFields) {
+                if (field.getValue() instanceof NamedList<?> values) {
+                    Map<String, Integer> counts = new LinkedHashMap<>();
+                    for (Map.Entry<String, ?> value : values) {
+                        counts.put(value.getKey(), ((Number) value.getValue()).intValue());
+                    }
+                    result.facetFields.put(field.getKey(), counts);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void readHeader(JsonParser parser, SelectResponse result) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("QTime".equals(field)) {
+                result.qTime = parser.getValueAsLong();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readResponse(JsonParser parser, SelectResponse result) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("numFound".equals(field)) {
+                result.numFound = parser.getValueAsLong();
+            } else if ("docs".equals(field) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    result.docs.add(readDoc(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Map<String, Object> readDoc(JsonParser parser) throws IOException {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (field.endsWith(VECTOR_FIELD_SUFFIX)) {
+                // Numbers are only tokenized here, never converted or boxed
+                parser.skipChildren();
+                continue;
+            }
+            doc.put(field, readValue(parser, token));
+        }
+        return doc;
+    }
+
+    /**
+     * Scalars map to the same types convertValue(..., Map.class) produced: String, Integer/Long, Double, Boolean
+     */
+    private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT -> parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> MAPPER.readValue(parser, Object.class);
+        };
+    }
+
+    private static void readFacetCounts(JsonParser parser, SelectResponse result) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String section = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (!"facet_fields".equals(section) || token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                // Solr's default json.nl=flat: [value, count, value, count, ...]
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    String value = parser.getValueAsString();
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    counts.put(value, parser.getValueAsInt());
+                }
+                result.facetFields.put(field, counts);
+            }
+        }
+    }
+
+    /**
+     * The parts of a /select response the search paths use
+     */
+    public static class SelectResponse {
+        private long responseStartNanos;
+        private long qTime;
+        private long numFound;
+        private String nextCursorMark;
+        private final List<Map<String, Object>> docs = new ArrayList<>();
+        private final Map<String, Map<String, Integer>> facetFields = new HashMap<>();
+
+        /** System.nanoTime() at which the response headers arrived and parsing began */
+        public long getResponseStartNanos() { return responseStartNanos; }
+        public void setResponseStartNanos(long responseStartNanos) { this.responseStartNanos = responseStartNanos; }
+        public long getQTime() { return qTime; }
+        public long getNumFound() { return numFound; }
+        public String getNextCursorMark() { return nextCursorMark; }
+        public List<Map<String, Object>> getDocs() { return docs; }
+        public Map<String, Map<String, Integer>> getFacetFields() { return facetFields; }
+    }
+}